@@ -0,0 +1,80 @@
+package com.bank.pe.msaccounts.benchmark;
+
+import com.bank.pe.msaccounts.dto.AccountFields;
+import com.bank.pe.msaccounts.dto.AccountSummaryDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serialización JSON de las respuestas con el ObjectMapper configurado como en la aplicación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountJsonBenchmark {
+
+    @Param({"1", "5", "50"})
+    private int accountsPerCustomer;
+
+    private ObjectMapper objectMapper;
+    private Account account;
+    private List<Account> accounts;
+    private List<AccountSummaryDTO> summaries;
+    private Set<String> fields;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        accounts = BenchmarkFixtures.accounts("C1", accountsPerCustomer);
+        account = accounts.get(0);
+        summaries = accounts.stream()
+                .map(a -> new AccountSummaryDTO(a.getId(), a.getNumber(), a.getType(), a.getCustomerId(), a.getBalance()))
+                .collect(Collectors.toList());
+        fields = AccountFields.parse("number,balance");
+    }
+
+    @Benchmark
+    public byte[] serializeAccount() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] serializeAccountList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accounts);
+    }
+
+    // fields=summary: proyección DTO de /customer/{id}
+    @Benchmark
+    public byte[] serializeSummaryList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    // fields=number,balance: selección arbitraria escrita como mapa
+    @Benchmark
+    public byte[] serializeSelectedFieldsList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accounts.stream()
+                .map(a -> AccountFields.select(a, fields))
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.bank.pe.msaccounts.benchmark;
+
+import com.bank.pe.msaccounts.dto.AccountDTO;
+import com.bank.pe.msaccounts.dto.AccountMapper;
+import com.bank.pe.msaccounts.dto.CreditEligibilityDTO;
+import com.bank.pe.msaccounts.dto.CustomerDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import com.bank.pe.msaccounts.rules.AccountRuleEngine;
+import com.bank.pe.msaccounts.rules.AccountRuleProperties;
+import com.bank.pe.msaccounts.rules.RuleViolation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apertura de cuenta: conversión del DTO y evaluación de reglas, por tipo y perfil de cliente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountRulesBenchmark {
+
+    @Param({"1", "5", "50"})
+    private int accountsPerCustomer;
+
+    @Param({"PERSONAL:NONE", "PERSONAL:VIP", "EMPRESARIAL:NONE", "EMPRESARIAL:PYME"})
+    private String customerType;
+
+    private AccountRuleEngine engine;
+    private AccountMapper mapper;
+    private AccountDTO accountDTO;
+    private Account account;
+    private CustomerDTO customer;
+    private CustomerPortfolio portfolio;
+    private CreditEligibilityDTO eligibility;
+
+    @Setup
+    public void setUp() {
+        engine = new AccountRuleEngine(new AccountRuleProperties());
+        mapper = new AccountMapper(engine);
+        accountDTO = BenchmarkFixtures.accountDTO("corriente");
+        account = mapper.toEntity(accountDTO);
+        customer = BenchmarkFixtures.customer(customerType);
+        List<Account> existing = BenchmarkFixtures.accounts(customer.getId(), accountsPerCustomer);
+        portfolio = BenchmarkFixtures.portfolio(existing);
+        eligibility = BenchmarkFixtures.eligibility(true);
+    }
+
+    @Benchmark
+    public RuleViolation applyAccountRules() {
+        return engine.evaluate(account, customer, portfolio, eligibility);
+    }
+
+    @Benchmark
+    public Account convertDtoToEntity() {
+        return mapper.toEntity(accountDTO);
+    }
+}
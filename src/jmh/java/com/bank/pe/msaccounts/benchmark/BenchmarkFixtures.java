@@ -0,0 +1,110 @@
+package com.bank.pe.msaccounts.benchmark;
+
+import com.bank.pe.msaccounts.dto.AccountDTO;
+import com.bank.pe.msaccounts.dto.CreditEligibilityDTO;
+import com.bank.pe.msaccounts.dto.CustomerDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.entity.BalanceSnapshot;
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import com.bank.pe.msaccounts.money.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos sintéticos y deterministas para los benchmarks: cuentas de un cliente, su portafolio y sus snapshots.
+ */
+public final class BenchmarkFixtures {
+
+    private static final String[] PRODUCT_TYPES = {"AHORRO", "CORRIENTE", "PLAZO_FIJO"};
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Cliente a partir de "TIPO:PERFIL", por ejemplo "EMPRESARIAL:PYME".
+     */
+    public static CustomerDTO customer(String typeAndProfile) {
+        String[] parts = typeAndProfile.split(":");
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId("C1");
+        customer.setType(parts[0]);
+        customer.setProfile("NONE".equals(parts[1]) ? null : parts[1]);
+        return customer;
+    }
+
+    public static List<Account> accounts(String customerId, int count) {
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Account account = new Account();
+            account.setId(customerId + "-A" + i);
+            account.setNumber(String.format("19100%09d", i));
+            account.setType(PRODUCT_TYPES[i % PRODUCT_TYPES.length]);
+            account.setCustomerId(customerId);
+            account.setBalance(Money.ofMinor(1_000_00L + i * 137L));
+            account.setHasMaintenanceFee(i % 2 == 0);
+            account.setTransactionLimit(20);
+            account.setAuthorizedSigners(List.of("Firmante 1", "Firmante 2"));
+            account.setCommissionFee(Money.of("2.50"));
+            account.setMinimumOpeningBalance(Money.of("100.00"));
+            account.setFreeTransactions(10);
+            account.setTransactionCount(i % 15);
+            account.setLastTransactionDate(LocalDateTime.of(2024, 5, 20, 10, 30));
+            account.setCreatedAt(LocalDateTime.of(2023, 1, 15, 9, 0));
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+    public static CustomerPortfolio portfolio(List<Account> accounts) {
+        CustomerPortfolio portfolio = new CustomerPortfolio();
+        for (Account account : accounts) {
+            portfolio.getAccountsByType().merge(CustomerPortfolio.typeKey(account.getType()), 1, Integer::sum);
+        }
+        return portfolio;
+    }
+
+    public static CreditEligibilityDTO eligibility(boolean hasCreditCard) {
+        return new CreditEligibilityDTO("C1", false, hasCreditCard);
+    }
+
+    public static AccountDTO accountDTO(String type) {
+        AccountDTO dto = new AccountDTO();
+        dto.setNumber("191000000001");
+        dto.setType(type);
+        dto.setCustomerId("C1");
+        dto.setBalance(Money.of("1500.00"));
+        dto.setTransactionLimit(20);
+        dto.setAuthorizedSigners(List.of("Firmante 1"));
+        dto.setCommissionFee(Money.of("2.50"));
+        dto.setMinimumOpeningBalance(Money.of("100.00"));
+        dto.setFreeTransactions(10);
+        dto.setTransactionCount(0);
+        return dto;
+    }
+
+    /**
+     * Un snapshot por cuenta con movimientos en los días transcurridos del mes.
+     */
+    public static List<BalanceSnapshot> snapshots(List<Account> accounts, LocalDate upTo) {
+        YearMonth month = YearMonth.from(upTo);
+        List<BalanceSnapshot> snapshots = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            BalanceSnapshot snapshot = new BalanceSnapshot();
+            snapshot.setId(BalanceSnapshot.idOf(account.getId(), month));
+            snapshot.setAccountId(account.getId());
+            snapshot.setMonth(month.toString());
+            long weighted = 0;
+            for (int day = 1; day <= upTo.getDayOfMonth(); day += 3) {
+                snapshot.getNetByDay().put(String.valueOf(day), Money.ofMinor(5_00L));
+                weighted += 5_00L * (day - 1);
+            }
+            snapshot.setWeightedDelta(Money.ofMinor(weighted));
+            snapshots.add(snapshot);
+        }
+        return snapshots;
+    }
+}
@@ -0,0 +1,78 @@
+package com.bank.pe.msaccounts.service.impl;
+
+import com.bank.pe.msaccounts.benchmark.BenchmarkFixtures;
+import com.bank.pe.msaccounts.dto.TransferRequestDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.entity.BalanceSnapshot;
+import com.bank.pe.msaccounts.money.Money;
+import com.bank.pe.msaccounts.repository.BalanceDelta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Partes en memoria del servicio: el armado del reporte de saldo promedio diario y la aritmética de saldos de un
+ * lote de transferencias. Mongo queda fuera; se mide solo el código que corre entre la lectura y la escritura.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountServiceHotPathBenchmark {
+
+    private static final int TRANSFER_BATCH_SIZE = 500;
+
+    @Param({"1", "5", "50"})
+    private int accountsPerCustomer;
+
+    private LocalDate today;
+    private List<Account> accounts;
+    private Map<String, Account> accountsById;
+    private Map<String, BalanceSnapshot> snapshots;
+    private List<TransferRequestDTO> transfers;
+
+    @Setup
+    public void setUp() {
+        today = LocalDate.of(2024, 5, 28);
+        accounts = BenchmarkFixtures.accounts("C1", Math.max(2, accountsPerCustomer));
+        accountsById = accounts.stream().collect(Collectors.toMap(Account::getId, Function.identity()));
+        snapshots = BenchmarkFixtures.snapshots(accounts, today).stream()
+                .collect(Collectors.toMap(BalanceSnapshot::getAccountId, Function.identity()));
+        transfers = new ArrayList<>(TRANSFER_BATCH_SIZE);
+        for (int i = 0; i < TRANSFER_BATCH_SIZE; i++) {
+            Account from = accounts.get(i % accounts.size());
+            Account to = accounts.get((i + 1) % accounts.size());
+            // Cada 50 transferencias una excede el saldo para ejercitar el rechazo
+            Money amount = i % 50 == 49 ? Money.ofMinor(10_000_000_00L) : Money.ofMinor(1_00L + i);
+            transfers.add(new TransferRequestDTO("T" + i, from.getId(), to.getId(), amount));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Money> dailyBalanceReport() {
+        return AccountServiceImpl.dailyBalanceReport(accounts, snapshots, today);
+    }
+
+    @Benchmark
+    public List<BalanceDelta> transferBalanceArithmetic() {
+        return AccountServiceImpl.planTransfers(transfers, accountsById).deltas;
+    }
+}
@@ -0,0 +1,58 @@
+package com.bank.pe.msaccounts.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y códigos de respuesta de un endpoint. La latencia se mide desde el instante en que la solicitud
+ * debía salir según la tasa objetivo, no desde que salió, para no ocultar colas (coordinated omission).
+ */
+final class EndpointStats {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        statusCodes.computeIfAbsent(status, code -> new LongAdder()).increment();
+        if (status == 0 || status >= 500) {
+            errors.increment();
+        }
+    }
+
+    Map<String, Object> summary(double durationSeconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long count = latencies.getTotalCount();
+        summary.put("count", count);
+        summary.put("errors", errors.sum());
+        summary.put("throughputRps", round(count / durationSeconds));
+        summary.put("p50Ms", millis(latencies.getValueAtPercentile(50)));
+        summary.put("p99Ms", millis(latencies.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(latencies.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(latencies.getMaxValue()));
+        Map<String, Long> codes = new LinkedHashMap<>();
+        statusCodes.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> codes.put(entry.getKey() == 0 ? "io-error" : String.valueOf(entry.getKey()),
+                        entry.getValue().sum()));
+        summary.put("statusCodes", codes);
+        return summary;
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,320 @@
+package com.bank.pe.msaccounts.loadtest;
+
+import com.bank.pe.msaccounts.MsAccountsApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de extremo a extremo: levanta la aplicación contra un Mongo local (ver {@link MongoStandIn}) y stubs HTTP de ms-customer
+ * y ms-credits, siembra cuentas y ejecuta una mezcla de operaciones a una tasa fija (modelo abierto). El resultado
+ * por endpoint (throughput, p50/p99/p999, códigos) se escribe en JSON para comparar entre builds.
+ *
+ * <pre>mvn -Ploadtest test-compile exec:exec -Dloadtest.rps=500 -Dloadtest.duration=60s</pre>
+ */
+public final class LoadTestHarness {
+
+    private static final ParameterizedTypeReference<Map<String, String>> JSON_MAP = new ParameterizedTypeReference<>() {
+    };
+
+    private final Config config;
+    private final WebClient client;
+    private final List<String[]> accountPairs = new ArrayList<>();
+    private final List<String> customerIds = new ArrayList<>();
+    private final AtomicLong createdCustomers = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private LoadTestHarness(Config config, String baseUrl) {
+        this.config = config;
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(config.maxInFlight)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = WebClient.builder()
+                .baseUrl(baseUrl + "/api/v1/accounts")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Config config = Config.fromSystemProperties();
+        try (MongoStandIn mongo = MongoStandIn.start(config.mongo);
+             StubDownstreams stubs = new StubDownstreams(config.stubLatency, config.stubJitter, config.stubErrorRate);
+             ConfigurableApplicationContext app = startApplication(mongo.uri(), stubs)) {
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            LoadTestHarness harness = new LoadTestHarness(config, baseUrl);
+            harness.seed();
+            harness.run(config.warmup, null);
+            Map<String, EndpointStats> stats = new LinkedHashMap<>();
+            config.mix.keySet().forEach(operation -> stats.put(operation, new EndpointStats()));
+            long start = System.nanoTime();
+            harness.run(config.duration, stats);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            harness.report(stats, seconds);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Se pasan como argumentos de línea de comandos para que prevalezcan sobre application.yml.
+     */
+    private static ConfigurableApplicationContext startApplication(String mongoUri, StubDownstreams stubs) {
+        return new SpringApplicationBuilder(MsAccountsApplication.class).run(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + mongoUri,
+                "--eureka.client.enabled=false",
+                "--spring.cloud.config.enabled=false",
+                "--logging.level.root=WARN",
+                "--ms-accounts.clients.customers.base-url=" + stubs.customersBaseUrl(),
+                "--ms-accounts.clients.credits.base-url=" + stubs.creditsBaseUrl());
+    }
+
+    /**
+     * Crea dos cuentas por cliente con saldo suficiente para que las transferencias no se queden sin fondos.
+     */
+    private void seed() {
+        AtomicLong rejected = new AtomicLong();
+        Flux.range(0, config.customers)
+                .flatMap(i -> {
+                    // Uno de cada cinco es empresarial: dos cuentas corrientes; el resto, ahorro y corriente
+                    String customerId = (i % 5 == 0 ? "EMP-" : "PER-") + i;
+                    String firstType = customerId.startsWith("EMP") ? "CORRIENTE" : "AHORRO";
+                    return Mono.zip(createAccount(customerId + "-1", customerId, firstType, "1000000.00"),
+                                    createAccount(customerId + "-2", customerId, "CORRIENTE", "1000000.00"))
+                            .doOnNext(ids -> {
+                                synchronized (accountPairs) {
+                                    accountPairs.add(new String[]{ids.getT1(), ids.getT2()});
+                                    customerIds.add(customerId);
+                                }
+                            })
+                            .onErrorResume(WebClientResponseException.class, ex -> {
+                                if (rejected.getAndIncrement() == 0) {
+                                    System.err.println("Alta de siembra rechazada: " + ex.getResponseBodyAsString());
+                                }
+                                return Mono.empty();
+                            });
+                }, 32)
+                .blockLast();
+        if (accountPairs.isEmpty()) {
+            throw new IllegalStateException("No se pudo sembrar ninguna cuenta");
+        }
+    }
+
+    private Mono<String> createAccount(String number, String customerId, String type, String balance) {
+        Map<String, Object> account = new LinkedHashMap<>();
+        account.put("number", number);
+        account.put("type", type);
+        account.put("customerId", customerId);
+        account.put("balance", balance);
+        account.put("transactionLimit", 1000);
+        account.put("freeTransactions", 1000);
+        account.put("transactionCount", 0);
+        account.put("commissionFee", "1.00");
+        if (customerId.startsWith("EMP")) {
+            account.put("authorizedSigners", List.of("Firmante"));
+        }
+        return client.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(account)
+                .retrieve()
+                .bodyToMono(JSON_MAP)
+                .map(body -> body.get("id"));
+    }
+
+    /**
+     * Dispara solicitudes a la tasa objetivo durante el tiempo indicado; con stats nulo es calentamiento.
+     */
+    private void run(Duration duration, Map<String, EndpointStats> stats) {
+        if (duration.isZero()) {
+            return;
+        }
+        long periodNanos = 1_000_000_000L / config.rps;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long intended = start; intended < end; intended += periodNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= config.maxInFlight) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            String operation = pickOperation();
+            long intendedStart = intended;
+            inFlight.incrementAndGet();
+            execute(operation)
+                    .defaultIfEmpty(0)
+                    .onErrorReturn(0)
+                    .subscribe(status -> {
+                        inFlight.decrementAndGet();
+                        if (stats != null) {
+                            stats.get(operation).record(System.nanoTime() - intendedStart, status);
+                        }
+                    });
+        }
+        long drainDeadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(1_000_000L);
+        }
+    }
+
+    private String pickOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(config.totalWeight);
+        for (Map.Entry<String, Integer> entry : config.mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Mezcla de operaciones vacía");
+    }
+
+    private Mono<Integer> execute(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] pair = accountPairs.get(random.nextInt(accountPairs.size()));
+        switch (operation) {
+            case "create":
+                // Cliente nuevo en cada alta para no chocar con los límites por tipo de cuenta
+                long sequence = createdCustomers.incrementAndGet();
+                return exchange(client.post()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of("number", "LT-" + sequence, "type", "AHORRO",
+                                "customerId", "PER-LT-" + sequence, "balance", "100.00",
+                                "transactionLimit", 10, "freeTransactions", 10, "transactionCount", 0)));
+            case "get":
+                return exchange(client.get().uri("/{id}", pair[random.nextInt(2)]));
+            case "transfer":
+                boolean forward = random.nextBoolean();
+                return exchange(client.post().uri(uri -> uri.path("/transfer")
+                        .queryParam("fromAccountId", forward ? pair[0] : pair[1])
+                        .queryParam("toAccountId", forward ? pair[1] : pair[0])
+                        .queryParam("amount", "1.00")
+                        .build()));
+            case "daily-balance":
+                return exchange(client.get().uri("/report/daily-balance/{customerId}",
+                        customerIds.get(random.nextInt(customerIds.size()))));
+            case "commission-totals":
+                LocalDate today = LocalDate.now();
+                return exchange(client.get().uri(uri -> uri.path("/report/commissions/totals")
+                        .queryParam("startDate", today.withDayOfMonth(1))
+                        .queryParam("endDate", today)
+                        .build()));
+            default:
+                throw new IllegalArgumentException("Operación desconocida: " + operation);
+        }
+    }
+
+    private static Mono<Integer> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.releaseBody()
+                .thenReturn(response.rawStatusCode()));
+    }
+
+    private void report(Map<String, EndpointStats> stats, double seconds) throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("config", config.describe());
+        result.put("durationSeconds", Math.round(seconds * 1000) / 1000.0);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            Map<String, Object> summary = entry.getValue().summary(seconds);
+            total += (long) summary.get("count");
+            endpoints.put(entry.getKey(), summary);
+        }
+        result.put("totalRequests", total);
+        result.put("throughputRps", Math.round(total / seconds * 1000) / 1000.0);
+        result.put("droppedRequests", dropped.get());
+        result.put("endpoints", endpoints);
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        File output = new File(config.output);
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        mapper.writeValue(output, result);
+        System.out.println(mapper.writeValueAsString(result));
+    }
+
+    private static final class Config {
+        private String mongo;
+        private int rps;
+        private Duration duration;
+        private Duration warmup;
+        private int customers;
+        private int maxInFlight;
+        private Duration stubLatency;
+        private Duration stubJitter;
+        private double stubErrorRate;
+        private String output;
+        private final Map<String, Integer> mix = new LinkedHashMap<>();
+        private int totalWeight;
+
+        static Config fromSystemProperties() {
+            Config config = new Config();
+            config.mongo = System.getProperty("loadtest.mongo", "memory");
+            config.rps = Integer.parseInt(System.getProperty("loadtest.rps", "200"));
+            config.duration = parseDuration(System.getProperty("loadtest.duration", "30s"));
+            config.warmup = parseDuration(System.getProperty("loadtest.warmup", "10s"));
+            config.customers = Integer.parseInt(System.getProperty("loadtest.customers", "500"));
+            config.maxInFlight = Integer.parseInt(System.getProperty("loadtest.max-in-flight", "2000"));
+            config.stubLatency = parseDuration(System.getProperty("loadtest.stub.latency", "5ms"));
+            config.stubJitter = parseDuration(System.getProperty("loadtest.stub.jitter", "5ms"));
+            config.stubErrorRate = Double.parseDouble(System.getProperty("loadtest.stub.error-rate", "0.0"));
+            config.output = System.getProperty("loadtest.output", "target/loadtest-result.json");
+            // Formato: operación=peso separados por coma
+            for (String entry : System.getProperty("loadtest.mix",
+                    "get=40,transfer=30,create=10,daily-balance=15,commission-totals=5").split(",")) {
+                String[] parts = entry.trim().split("=");
+                int weight = Integer.parseInt(parts[1]);
+                if (weight > 0) {
+                    config.mix.put(parts[0], weight);
+                    config.totalWeight += weight;
+                }
+            }
+            return config;
+        }
+
+        Map<String, Object> describe() {
+            Map<String, Object> describe = new LinkedHashMap<>();
+            describe.put("mongo", mongo.startsWith("mongodb") ? "uri" : mongo);
+            describe.put("targetRps", rps);
+            describe.put("duration", duration.toString());
+            describe.put("warmup", warmup.toString());
+            describe.put("customers", customers);
+            describe.put("stubLatencyMs", stubLatency.toMillis());
+            describe.put("stubJitterMs", stubJitter.toMillis());
+            describe.put("stubErrorRate", stubErrorRate);
+            describe.put("mix", mix);
+            return describe;
+        }
+
+        private static Duration parseDuration(String value) {
+            return DurationStyle.detectAndParse(value);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bank.pe.msaccounts.loadtest;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Mongo para la prueba de carga, según loadtest.mongo:
+ * <ul>
+ *     <li>memory: servidor en proceso (mongo-java-server), sin descargas; mide la aplicación, no el motor.</li>
+ *     <li>embedded: mongod 7.0 real descargado por flapdoodle; latencias de Mongo comparables con producción.</li>
+ *     <li>mongodb://...: una instancia existente, por ejemplo el servicio de Mongo del pipeline.</li>
+ * </ul>
+ */
+final class MongoStandIn implements AutoCloseable {
+
+    private static final String DATABASE = "ms-accounts-loadtest";
+
+    private final String uri;
+    private final MongoServer memoryServer;
+    private final TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+
+    private MongoStandIn(String uri, MongoServer memoryServer, TransitionWalker.ReachedState<RunningMongodProcess> mongod) {
+        this.uri = uri;
+        this.memoryServer = memoryServer;
+        this.mongod = mongod;
+    }
+
+    static MongoStandIn start(String mode) {
+        if (mode.startsWith("mongodb://") || mode.startsWith("mongodb+srv://")) {
+            return new MongoStandIn(mode, null, null);
+        }
+        if ("embedded".equals(mode)) {
+            TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            return new MongoStandIn(uriOf(address.getHost(), address.getPort()), null, mongod);
+        }
+        if ("memory".equals(mode)) {
+            MongoServer server = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = server.bind();
+            return new MongoStandIn(uriOf(address.getHostString(), address.getPort()), server, null);
+        }
+        throw new IllegalArgumentException("loadtest.mongo debe ser memory, embedded o una URI mongodb://");
+    }
+
+    String uri() {
+        return uri;
+    }
+
+    private static String uriOf(String host, int port) {
+        return "mongodb://" + host + ":" + port + "/" + DATABASE;
+    }
+
+    @Override
+    public void close() {
+        if (memoryServer != null) {
+            memoryServer.shutdownNow();
+        }
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.bank.pe.msaccounts.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Servidores HTTP en proceso que reemplazan a ms-customer y ms-credits, con latencia y tasa de error inyectadas.
+ * Los clientes cuyo id empieza con "EMP" se responden como empresariales PYME; el resto como personales.
+ */
+final class StubDownstreams implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final DisposableServer customers;
+    private final DisposableServer credits;
+
+    StubDownstreams(Duration latency, Duration jitter, double errorRate) {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.customers = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/v1.0/customers/{id}", (request, response) ->
+                        respond(response, customer(request.param("id")))))
+                .bindNow();
+        this.credits = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/v1.0/credits/customer/{id}", (request, response) -> respond(response, List.of()))
+                        .get("/v1.0/credits/hasOverdueDebt/{customerId}", (request, response) -> respond(response, false))
+                        .post("/v1.0/credits/eligibility/batch", this::eligibilityBatch))
+                .bindNow();
+    }
+
+    String customersBaseUrl() {
+        return "http://localhost:" + customers.port();
+    }
+
+    String creditsBaseUrl() {
+        return "http://localhost:" + credits.port();
+    }
+
+    private Mono<Void> eligibilityBatch(HttpServerRequest request, HttpServerResponse response) {
+        return request.receive().aggregate().asString()
+                .flatMap(body -> {
+                    List<Map<String, Object>> results = new ArrayList<>();
+                    for (String customerId : readIds(body)) {
+                        results.add(eligibility(customerId));
+                    }
+                    return respond(response, results).then();
+                });
+    }
+
+    private List<String> readIds(String body) {
+        try {
+            return List.of(objectMapper.readValue(body, String[].class));
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Cuerpo de elegibilidad inválido", ex);
+        }
+    }
+
+    private static Map<String, Object> customer(String id) {
+        boolean business = id.toUpperCase(Locale.ROOT).startsWith("EMP");
+        return Map.of(
+                "id", id,
+                "name", "Cliente " + id,
+                "type", business ? "EMPRESARIAL" : "PERSONAL",
+                "numberDocument", business ? "20" + Math.abs(id.hashCode()) : "4" + Math.abs(id.hashCode()),
+                "email", id + "@loadtest.local",
+                "profile", business ? "PYME" : "");
+    }
+
+    private static Map<String, Object> eligibility(String customerId) {
+        return Map.of("customerId", customerId, "hasOverdueDebt", false, "hasCreditCard", true);
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, Object body) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayNanos = latency.toNanos() + (jitter.isZero() ? 0 : random.nextLong(jitter.toNanos() + 1));
+        boolean fail = random.nextDouble() < errorRate;
+        Mono<Void> reply = Mono.defer(() -> {
+            if (fail) {
+                return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send().then();
+            }
+            return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                    .sendByteArray(Mono.fromCallable(() -> objectMapper.writeValueAsBytes(body)))
+                    .then();
+        });
+        return delayNanos > 0 ? Mono.delay(Duration.ofNanos(delayNanos)).then(reply) : reply;
+    }
+
+    @Override
+    public void close() {
+        customers.disposeNow();
+        credits.disposeNow();
+    }
+}
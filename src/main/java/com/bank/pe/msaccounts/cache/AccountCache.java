@@ -0,0 +1,69 @@
+package com.bank.pe.msaccounts.cache;
+
+import com.bank.pe.msaccounts.entity.Account;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Caché de lectura para cuentas calientes, por id y por número. Toda mutación en el servicio debe invalidar
+ * la cuenta después de confirmarse la escritura; una carga en curso invalidada no vuelve a poblar la caché.
+ */
+@Component
+public class AccountCache {
+
+    private final AsyncCache<String, Account> byId;
+    private final AsyncCache<String, Account> byNumber;
+
+    public AccountCache(MeterRegistry meterRegistry,
+                        @Value("${ms-accounts.cache.accounts.ttl:10s}") Duration ttl,
+                        @Value("${ms-accounts.cache.accounts.max-size:50000}") long maxSize) {
+        this.byId = newCache(ttl, maxSize);
+        this.byNumber = newCache(ttl, maxSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "accounts.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, byNumber, "accounts.byNumber");
+    }
+
+    public Mono<Account> getById(String id, Function<String, Mono<Account>> loader) {
+        return get(byId, id, loader);
+    }
+
+    public Mono<Account> getByNumber(String number, Function<String, Mono<Account>> loader) {
+        return get(byNumber, number, loader);
+    }
+
+    public void evict(Account account) {
+        if (account != null) {
+            evict(account.getId(), account.getNumber());
+        }
+    }
+
+    public void evict(String id, String number) {
+        if (id != null) {
+            byId.synchronous().invalidate(id);
+        }
+        if (number != null) {
+            byNumber.synchronous().invalidate(number);
+        }
+    }
+
+    private static Mono<Account> get(AsyncCache<String, Account> cache, String key,
+                                     Function<String, Mono<Account>> loader) {
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) -> loader.apply(k).toFuture()).copy());
+    }
+
+    private static AsyncCache<String, Account> newCache(Duration ttl, long maxSize) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+    }
+}
@@ -0,0 +1,241 @@
+package com.bank.pe.msaccounts.cache;
+
+import com.bank.pe.msaccounts.entity.IdempotencyRecord;
+import com.bank.pe.msaccounts.repository.IdempotencyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicación de solicitudes con Idempotency-Key. La colección idempotency_keys guarda la respuesta durante
+ * la retención configurada (índice TTL); delante, un mapa acotado en memoria comparte la ejecución en curso
+ * entre duplicados concurrentes de la misma instancia y responde las repeticiones recientes sin ir a Mongo.
+ * Las respuestas 5xx y los errores liberan la clave para que el cliente pueda reintentar.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AsyncCache<String, StoredResponse> responses;
+    private final Duration retention;
+    private final Duration inProgressTimeout;
+    private final Duration pollInterval;
+
+    public IdempotencyStore(IdempotencyRepository repository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${ms-accounts.idempotency.retention:24h}") Duration retention,
+                            @Value("${ms-accounts.idempotency.memory-ttl:10m}") Duration memoryTtl,
+                            @Value("${ms-accounts.idempotency.memory-max-size:10000}") long memoryMaxSize,
+                            @Value("${ms-accounts.idempotency.in-progress-timeout:30s}") Duration inProgressTimeout,
+                            @Value("${ms-accounts.idempotency.poll-interval:100ms}") Duration pollInterval) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.retention = retention;
+        this.inProgressTimeout = inProgressTimeout;
+        this.pollInterval = pollInterval;
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(memoryTtl.compareTo(retention) < 0 ? memoryTtl : retention)
+                .maximumSize(memoryMaxSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+    }
+
+    /**
+     * Ejecuta la acción una sola vez por (operación, clave). Sin clave se ejecuta directamente; una clave ya usada
+     * devuelve la respuesta guardada, o 422 si la solicitud no coincide con la original.
+     */
+    public <T> Mono<ResponseEntity<T>> execute(String operation, String key, Object request, TypeReference<T> bodyType,
+                                               Supplier<Mono<ResponseEntity<T>>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres"));
+        }
+        String id = operation + ":" + key;
+        String fingerprint = fingerprint(request);
+        AtomicBoolean loader = new AtomicBoolean();
+        return Mono.fromFuture(() -> responses.get(id, (k, executor) -> {
+                    loader.set(true);
+                    return load(k, fingerprint, action).toFuture();
+                }).copy())
+                .map(stored -> {
+                    if (!stored.getFingerprint().equals(fingerprint)) {
+                        throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                                "Idempotency-Key ya utilizada con una solicitud distinta");
+                    }
+                    if (!stored.isPersisted()) {
+                        responses.synchronous().invalidate(id);
+                    }
+                    // Solo quien ejecutó la acción recibe la respuesta como original
+                    boolean replayed = !(loader.get() && stored.isExecuted());
+                    if (replayed) {
+                        meterRegistry.counter("accounts.idempotency.replays", "operation", operation).increment();
+                    }
+                    return toResponse(stored, bodyType, replayed);
+                });
+    }
+
+    private <T> Mono<StoredResponse> load(String id, String fingerprint, Supplier<Mono<ResponseEntity<T>>> action) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord reservation = new IdempotencyRecord(id, fingerprint, IdempotencyRecord.IN_PROGRESS,
+                null, null, now, now.plus(retention));
+        return repository.reserve(reservation)
+                .flatMap(reserved -> reserved ? run(id, fingerprint, action) : awaitExisting(id, fingerprint, action));
+    }
+
+    private <T> Mono<StoredResponse> run(String id, String fingerprint, Supplier<Mono<ResponseEntity<T>>> action) {
+        return Mono.using(() -> heartbeat(id), heartbeat -> Mono.defer(action::get), Disposable::dispose)
+                .flatMap(response -> {
+                    StoredResponse stored = new StoredResponse(fingerprint, response.getStatusCodeValue(),
+                            serialize(response.getBody()), !response.getStatusCode().is5xxServerError(), true);
+                    if (!stored.isPersisted()) {
+                        return repository.release(id).thenReturn(stored);
+                    }
+                    return repository.complete(id, stored.getStatus(), stored.getBody(), LocalDateTime.now().plus(retention))
+                            .thenReturn(stored);
+                })
+                .onErrorResume(ex -> {
+                    responses.synchronous().invalidate(id);
+                    return repository.release(id).then(Mono.error(ex));
+                })
+                // Una acción cancelada a medias no debe dejar la clave EN_PROCESO hasta in-progress-timeout
+                .doOnCancel(() -> {
+                    responses.synchronous().invalidate(id);
+                    repository.release(id).subscribe(null,
+                            ex -> logger.warn("No se pudo liberar la Idempotency-Key {}: {}", id, ex.getMessage()));
+                });
+    }
+
+    /**
+     * Mientras la acción corre se renueva reservedAt cada tercio de in-progress-timeout: una reserva solo se
+     * considera abandonada si su dueño dejó de renovarla, no por lo que tarde la acción.
+     */
+    private Disposable heartbeat(String id) {
+        return Flux.interval(inProgressTimeout.dividedBy(3))
+                .concatMap(tick -> repository.refresh(id, LocalDateTime.now())
+                        .onErrorResume(ex -> {
+                            logger.warn("No se pudo renovar la Idempotency-Key {}: {}", id, ex.getMessage());
+                            return Mono.just(true);
+                        }))
+                .takeWhile(Boolean::booleanValue)
+                .subscribe();
+    }
+
+    /**
+     * La clave ya está reservada: se replica la respuesta completada o se espera a que otra instancia termine.
+     * Una reserva que su dueño no renovó durante in-progress-timeout se toma y se vuelve a ejecutar. El timeout acota
+     * solo la espera: la acción re-ejecutada (tras tomar o volver a reservar la clave) corre sin plazo para no cortarla
+     * a medias.
+     */
+    private <T> Mono<StoredResponse> awaitExisting(String id, String fingerprint, Supplier<Mono<ResponseEntity<T>>> action) {
+        return poll(id, fingerprint)
+                .timeout(inProgressTimeout, Mono.error(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Hay una solicitud en proceso con la misma Idempotency-Key")))
+                .flatMap(outcome -> {
+                    if (outcome.getStored() != null) {
+                        return Mono.just(outcome.getStored());
+                    }
+                    return outcome.isTakenOver() ? run(id, fingerprint, action) : load(id, fingerprint, action);
+                });
+    }
+
+    private Mono<PollOutcome> poll(String id, String fingerprint) {
+        return repository.findById(id)
+                .flatMap(record -> {
+                    if (IdempotencyRecord.COMPLETED.equals(record.getStatus())) {
+                        return Mono.just(new PollOutcome(new StoredResponse(record.getFingerprint(),
+                                record.getResponseStatus(), record.getResponseBody(), true, false), false));
+                    }
+                    if (!record.getFingerprint().equals(fingerprint)) {
+                        return Mono.just(new PollOutcome(new StoredResponse(record.getFingerprint(), 0, null, false, false),
+                                false));
+                    }
+                    LocalDateTime now = LocalDateTime.now();
+                    return repository.takeOver(id, now.minus(inProgressTimeout), now)
+                            .flatMap(taken -> taken
+                                    ? Mono.just(new PollOutcome(null, true))
+                                    : Mono.delay(pollInterval).then(poll(id, fingerprint)));
+                })
+                // Reserva liberada tras un fallo: se vuelve a intentar reservar
+                .defaultIfEmpty(new PollOutcome(null, false));
+    }
+
+    private <T> ResponseEntity<T> toResponse(StoredResponse stored, TypeReference<T> bodyType, boolean replayed) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.getStatus());
+        if (replayed) {
+            builder.header(REPLAYED_HEADER, "true");
+        }
+        try {
+            return builder.body(stored.getBody() == null ? null : objectMapper.readValue(stored.getBody(), bodyType));
+        } catch (JsonProcessingException ex) {
+            logger.error("Respuesta idempotente ilegible: {}", ex.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Respuesta idempotente ilegible");
+        }
+    }
+
+    private String serialize(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", ex);
+        }
+    }
+
+    String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(serialize(request).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // stored != null: respuesta lista; takenOver: la reserva abandonada es nuestra; ninguno: la clave quedó libre
+    @lombok.Value
+    private static class PollOutcome {
+        StoredResponse stored;
+        boolean takenOver;
+    }
+
+    @lombok.Value
+    static class StoredResponse {
+        String fingerprint;
+        int status;
+        String body;
+        boolean persisted; // false para 5xx: se entrega a los duplicados en curso pero no se guarda
+        boolean executed; // La acción se ejecutó en esta instancia
+    }
+}
@@ -3,6 +3,7 @@ package com.bank.pe.msaccounts.client;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
 import com.bank.pe.msaccounts.dto.CreditDTO;
 import reactor.core.publisher.Flux;
@@ -11,29 +12,39 @@ import reactor.core.publisher.Mono;
 @Component
 public class CreditClient {
 
+    private final Downstream credits;
     private final WebClient webClient;
 
-    public CreditClient(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.baseUrl("http://localhost:8083").build();
+    public CreditClient(DownstreamClients downstreams) {
+        this.credits = downstreams.credits();
+        this.webClient = credits.webClient();
     }
 
     public Flux<CreditDTO> getCreditProductsByCustomer(String customerId) {
-        return webClient.get()
+        return credits.callMany("credit-products", customerId, webClient.get()
                 .uri("/v1.0/credits/customer/{id}", customerId)
                 .retrieve()
                 .onStatus(HttpStatus::is4xxClientError, response ->
                         Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "No se encontraron créditos para este cliente")))
                 .onStatus(HttpStatus::is5xxServerError, response ->
                         Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error en el servicio ms-credits")))
-                .bodyToFlux(CreditDTO.class);
+                .bodyToFlux(CreditDTO.class));
     }
+
+    /**
+     * Sin respuesta ni valor reciente se propaga el error: asumir "sin deuda" dejaría pasar a clientes morosos.
+     * Un 404 (cliente sin créditos registrados) sí es una respuesta: no tiene deuda vencida.
+     */
     public Mono<Boolean> hasOverdueDebt(String customerId) {
-        return webClient.get()
+        return credits.call("overdue-debt", customerId, webClient.get()
                 .uri("/v1.0/credits/hasOverdueDebt/{customerId}", customerId)
                 .retrieve()
+                .onStatus(status -> status.is4xxClientError() && status != HttpStatus.NOT_FOUND, response ->
+                        Mono.error(new ResponseStatusException(HttpStatus.FAILED_DEPENDENCY, "Solicitud rechazada por ms-credits")))
+                .onStatus(HttpStatus::is5xxServerError, response ->
+                        Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error en el servicio ms-credits")))
                 .bodyToMono(Boolean.class)
-                .onErrorReturn(false);
+                .onErrorReturn(WebClientResponseException.NotFound.class, false));
     }
 
 }
-
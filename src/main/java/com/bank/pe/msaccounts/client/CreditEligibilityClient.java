@@ -0,0 +1,159 @@
+package com.bank.pe.msaccounts.client;
+
+import com.bank.pe.msaccounts.dto.CreditEligibilityDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+
+/**
+ * Resuelve "tiene deuda vencida" y "tiene tarjeta de crédito" en una sola consulta por lotes a ms-credits.
+ * Las solicitudes concurrentes se agrupan en micro-lotes por tiempo o tamaño y cada resultado se devuelve
+ * a su Mono en espera. Si el endpoint por lotes no está disponible se usan las consultas individuales; si el lote
+ * no responde dentro de wait-timeout, el cliente en espera también se resuelve con ellas.
+ */
+@Component
+public class CreditEligibilityClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditEligibilityClient.class);
+    private static final Sinks.EmitFailureHandler RETRY_ON_CONTENTION =
+            (signalType, result) -> result == Sinks.EmitResult.FAIL_NON_SERIALIZED;
+
+    private final Downstream credits;
+    private final WebClient webClient;
+    private final CreditClient creditClient;
+    private final boolean batchingEnabled;
+    private final Duration unavailableBackoff;
+    private final Duration waitTimeout;
+    private final Sinks.Many<PendingRequest> pendingRequests;
+    private final Disposable batchSubscription;
+    private volatile long batchRetryAt;
+
+    public CreditEligibilityClient(DownstreamClients downstreams,
+                                   CreditClient creditClient,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${ms-accounts.credits.batching.enabled:true}") boolean batchingEnabled,
+                                   @Value("${ms-accounts.credits.batching.window:5ms}") Duration window,
+                                   @Value("${ms-accounts.credits.batching.max-size:100}") int maxBatchSize,
+                                   @Value("${ms-accounts.credits.batching.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${ms-accounts.credits.batching.unavailable-backoff:1m}") Duration unavailableBackoff,
+                                   @Value("${ms-accounts.credits.batching.wait-timeout:5s}") Duration waitTimeout) {
+        this.credits = downstreams.credits();
+        this.webClient = credits.webClient();
+        this.creditClient = creditClient;
+        this.batchingEnabled = batchingEnabled;
+        this.unavailableBackoff = unavailableBackoff;
+        this.waitTimeout = waitTimeout;
+        Queue<PendingRequest> queue = Queues.<PendingRequest>get(queueCapacity).get();
+        this.pendingRequests = Sinks.many().unicast().onBackpressureBuffer(queue);
+        Gauge.builder("credits.eligibility.pending", queue, Queue::size)
+                .description("Solicitudes de elegibilidad en espera de un lote")
+                .register(meterRegistry);
+        // Demanda ilimitada: cada lote se despacha apenas se cierra, sin frenar la ventana siguiente
+        this.batchSubscription = pendingRequests.asFlux()
+                .bufferTimeout(maxBatchSize, window)
+                .subscribe(this::dispatch, ex -> logger.error("El agrupador de elegibilidad crediticia terminó", ex));
+    }
+
+    public Mono<CreditEligibilityDTO> getEligibility(String customerId) {
+        if (!batchingEnabled || System.currentTimeMillis() < batchRetryAt) {
+            return resolveIndividually(customerId);
+        }
+        return Mono.defer(() -> {
+            PendingRequest request = new PendingRequest(customerId);
+            try {
+                pendingRequests.emitNext(request, RETRY_ON_CONTENTION);
+            } catch (Sinks.EmissionException ex) {
+                // Cola llena: no se espera un lote, se consulta directamente
+                return resolveIndividually(customerId);
+            }
+            return request.result.asMono()
+                    .timeout(waitTimeout, Mono.defer(() -> resolveIndividually(customerId)));
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchSubscription.dispose();
+    }
+
+    private void dispatch(List<PendingRequest> batch) {
+        Map<String, List<Sinks.One<CreditEligibilityDTO>>> waiters = new LinkedHashMap<>();
+        for (PendingRequest request : batch) {
+            waiters.computeIfAbsent(request.customerId, id -> new ArrayList<>()).add(request.result);
+        }
+
+        // Sin respaldo del lote: si falla, cada cliente se resuelve con las consultas individuales, que sí lo tienen
+        credits.call("eligibility-batch", null, webClient.post()
+                        .uri("/v1.0/credits/eligibility/batch")
+                        .bodyValue(waiters.keySet())
+                        .retrieve()
+                        .bodyToFlux(CreditEligibilityDTO.class)
+                        .collectMap(CreditEligibilityDTO::getCustomerId))
+                .subscribe(results -> waiters.forEach((customerId, sinks) -> {
+                    CreditEligibilityDTO result = results.get(customerId);
+                    if (result != null) {
+                        sinks.forEach(sink -> sink.tryEmitValue(result));
+                    } else {
+                        complete(sinks, resolveIndividually(customerId));
+                    }
+                }), ex -> {
+                    if (ex instanceof WebClientResponseException.NotFound) {
+                        logger.warn("Endpoint de elegibilidad por lotes no disponible, se usan consultas individuales");
+                        batchRetryAt = System.currentTimeMillis() + unavailableBackoff.toMillis();
+                    } else {
+                        logger.warn("Falló la consulta de elegibilidad por lotes ({} clientes)", waiters.size(), ex);
+                    }
+                    waiters.forEach((customerId, sinks) -> complete(sinks, resolveIndividually(customerId)));
+                });
+    }
+
+    private static void complete(List<Sinks.One<CreditEligibilityDTO>> sinks, Mono<CreditEligibilityDTO> source) {
+        // Un Mono vacío dejaría a los clientes en espera sin respuesta
+        source.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "No se pudo determinar la elegibilidad crediticia")))
+                .subscribe(result -> sinks.forEach(sink -> sink.tryEmitValue(result)),
+                        ex -> sinks.forEach(sink -> sink.tryEmitError(ex)));
+    }
+
+    private Mono<CreditEligibilityDTO> resolveIndividually(String customerId) {
+        Mono<Optional<Boolean>> hasCreditCard = creditClient.getCreditProductsByCustomer(customerId)
+                .any(credit -> "TARJETA_CREDITO".equalsIgnoreCase(credit.getCreditType()))
+                .map(Optional::of)
+                .onErrorResume(ResponseStatusException.class, ex -> ex.getStatus() == HttpStatus.NOT_FOUND
+                        ? Mono.just(Optional.of(false))
+                        : Mono.just(Optional.empty()))
+                .onErrorReturn(Optional.empty());
+
+        return Mono.zip(creditClient.hasOverdueDebt(customerId), hasCreditCard)
+                .map(tuple -> new CreditEligibilityDTO(customerId, tuple.getT1(), tuple.getT2().orElse(null)));
+    }
+
+    private static final class PendingRequest {
+        private final String customerId;
+        private final Sinks.One<CreditEligibilityDTO> result = Sinks.one();
+
+        private PendingRequest(String customerId) {
+            this.customerId = customerId;
+        }
+    }
+}
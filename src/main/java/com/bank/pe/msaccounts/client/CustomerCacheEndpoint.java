@@ -0,0 +1,28 @@
+package com.bank.pe.msaccounts.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidación de la caché de clientes cuando ms-customer modifica el tipo o perfil de un cliente.
+ */
+@Component
+@Endpoint(id = "customercache")
+@RequiredArgsConstructor
+public class CustomerCacheEndpoint {
+
+    private final CustomerClient customerClient;
+
+    @DeleteOperation
+    public void evictAll() {
+        customerClient.evictAll();
+    }
+
+    @DeleteOperation
+    public void evictCustomer(@Selector String customerId) {
+        customerClient.evictCustomer(customerId);
+    }
+}
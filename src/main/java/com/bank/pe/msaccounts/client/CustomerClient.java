@@ -1,5 +1,10 @@
 package com.bank.pe.msaccounts.client;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -7,23 +12,57 @@ import org.springframework.web.server.ResponseStatusException;
 import com.bank.pe.msaccounts.dto.CustomerDTO;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @Component
 public class CustomerClient {
 
+    private final Downstream customers;
     private final WebClient webClient;
+    private final AsyncCache<String, CustomerDTO> customerCache;
 
-    public CustomerClient(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.baseUrl("http://localhost:8081").build();
+    public CustomerClient(DownstreamClients downstreams,
+                          MeterRegistry meterRegistry,
+                          @Value("${ms-accounts.cache.customers.ttl:5m}") Duration ttl,
+                          @Value("${ms-accounts.cache.customers.max-size:10000}") long maxSize) {
+        this.customers = downstreams.customers();
+        this.webClient = customers.webClient();
+        // El tipo y perfil del cliente casi no cambian: caché acotada con TTL y una sola llamada por cliente en vuelo
+        this.customerCache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, customerCache, "customers");
     }
 
+    /**
+     * Consultas concurrentes del mismo cliente comparten la misma llamada HTTP. Los errores y
+     * respuestas vacías no quedan en caché.
+     */
     public Mono<CustomerDTO> getCustomerById(String customerId) {
-        return webClient.get()
+        // copy(): cancelar a un suscriptor no debe cancelar la carga que comparten los demás
+        return Mono.fromFuture(() -> customerCache
+                .get(customerId, (id, executor) -> fetchCustomer(id).toFuture())
+                .copy());
+    }
+
+    public void evictCustomer(String customerId) {
+        customerCache.synchronous().invalidate(customerId);
+    }
+
+    public void evictAll() {
+        customerCache.synchronous().invalidateAll();
+    }
+
+    private Mono<CustomerDTO> fetchCustomer(String customerId) {
+        return customers.call("customer", customerId, webClient.get()
                 .uri("/v1.0/customers/{id}", customerId)
                 .retrieve()
                 .onStatus(HttpStatus::is4xxClientError, response ->
                         Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente no encontrado")))
                 .onStatus(HttpStatus::is5xxServerError, response ->
                         Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error en el servicio ms-customer")))
-                .bodyToMono(CustomerDTO.class);
+                .bodyToMono(CustomerDTO.class));
     }
 }
@@ -0,0 +1,162 @@
+package com.bank.pe.msaccounts.client;
+
+import com.bank.pe.msaccounts.config.DownstreamProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Un servicio externo: su WebClient con pool propio y las protecciones que envuelven cada llamada. Un error 4xx es
+ * una respuesta válida del servicio; fallas de red, timeouts y 5xx cuentan para el circuit breaker y, si hay una
+ * respuesta válida reciente para la misma consulta, se responde con ella.
+ */
+public class Downstream {
+
+    private static final Logger logger = LoggerFactory.getLogger(Downstream.class);
+
+    private final String name;
+    private final WebClient webClient;
+    private final int maxConcurrentRequests;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final DownstreamCircuitBreaker circuitBreaker;
+    private final Cache<String, Object> staleValues;
+    private final Counter bulkheadRejections;
+    private final Counter circuitRejections;
+    private final Counter staleResponses;
+
+    public Downstream(String name, WebClient webClient, DownstreamProperties.Downstream properties,
+                      MeterRegistry meterRegistry) {
+        this.name = name;
+        this.webClient = webClient;
+        this.maxConcurrentRequests = properties.getMaxConcurrentRequests();
+        this.circuitBreaker = new DownstreamCircuitBreaker(properties.getCircuitBreaker());
+        this.staleValues = properties.getStaleWindow().isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(properties.getStaleWindow())
+                .maximumSize(properties.getStaleMaxSize())
+                .build();
+
+        Gauge.builder("downstream.bulkhead.active", inFlight, AtomicInteger::get)
+                .description("Solicitudes en curso contra el servicio")
+                .tag("downstream", name)
+                .register(meterRegistry);
+        Gauge.builder("downstream.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Estado del circuit breaker: 0 cerrado, 1 semiabierto, 2 abierto")
+                .tag("downstream", name)
+                .register(meterRegistry);
+        this.bulkheadRejections = rejections(meterRegistry, "bulkhead");
+        this.circuitRejections = rejections(meterRegistry, "circuit-open");
+        this.staleResponses = Counter.builder("downstream.stale.responses")
+                .description("Respuestas servidas desde el último valor válido por falla del servicio")
+                .tag("downstream", name)
+                .register(meterRegistry);
+    }
+
+    public WebClient webClient() {
+        return webClient;
+    }
+
+    /**
+     * Ejecuta la llamada con bulkhead y circuit breaker. Con key distinta de null, el resultado se recuerda para
+     * responder con él mientras el servicio falle dentro de la ventana de respaldo.
+     */
+    public <T> Mono<T> call(String operation, String key, Mono<T> request) {
+        return Mono.defer(() -> {
+            long permit = circuitBreaker.tryAcquire();
+            if (permit == DownstreamCircuitBreaker.REJECTED) {
+                circuitRejections.increment();
+                return fallback(operation, key, unavailable());
+            }
+            if (!tryAcquireBulkhead()) {
+                circuitBreaker.release(permit);
+                bulkheadRejections.increment();
+                return fallback(operation, key, unavailable());
+            }
+            return request
+                    .doOnSuccess(value -> {
+                        circuitBreaker.onSuccess(permit);
+                        if (value != null && key != null && staleValues != null) {
+                            staleValues.put(staleKey(operation, key), value);
+                        }
+                    })
+                    .doOnError(ex -> {
+                        if (isFailure(ex)) {
+                            circuitBreaker.onFailure(permit);
+                        } else {
+                            circuitBreaker.onSuccess(permit);
+                        }
+                    })
+                    .doOnCancel(() -> circuitBreaker.release(permit))
+                    .doFinally(signal -> inFlight.decrementAndGet())
+                    .onErrorResume(Downstream::isFailure, ex -> fallback(operation, key, ex));
+        });
+    }
+
+    /**
+     * Variante para respuestas en lista: se respalda la lista completa.
+     */
+    public <T> Flux<T> callMany(String operation, String key, Flux<T> request) {
+        return call(operation, key, request.collectList()).flatMapIterable(List::copyOf);
+    }
+
+    private boolean tryAcquireBulkhead() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrentRequests) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> fallback(String operation, String key, Throwable cause) {
+        Object stale = key == null || staleValues == null ? null : staleValues.getIfPresent(staleKey(operation, key));
+        if (stale != null) {
+            staleResponses.increment();
+            logger.debug("Servicio {} no disponible, se responde {} con el último valor válido", name, operation);
+            return Mono.just((T) stale);
+        }
+        return Mono.error(cause instanceof ResponseStatusException ? cause : unavailable());
+    }
+
+    private ResponseStatusException unavailable() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Servicio " + name + " no disponible");
+    }
+
+    private Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("downstream.calls.rejected")
+                .description("Llamadas rechazadas sin contactar al servicio")
+                .tag("downstream", name)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static String staleKey(String operation, String key) {
+        return operation + ":" + key;
+    }
+
+    static boolean isFailure(Throwable ex) {
+        if (ex instanceof ResponseStatusException) {
+            return ((ResponseStatusException) ex).getStatus().is5xxServerError();
+        }
+        if (ex instanceof WebClientResponseException) {
+            return ((WebClientResponseException) ex).getStatusCode().is5xxServerError();
+        }
+        return true;
+    }
+}
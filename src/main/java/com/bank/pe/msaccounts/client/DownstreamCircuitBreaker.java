@@ -0,0 +1,132 @@
+package com.bank.pe.msaccounts.client;
+
+import com.bank.pe.msaccounts.config.DownstreamProperties;
+
+/**
+ * Circuit breaker por conteo sobre las últimas N llamadas. Abierto rechaza sin llamar; tras openDuration deja pasar
+ * unas pocas llamadas de prueba y vuelve a cerrarse solo si todas tienen éxito. Cada permiso lleva la generación
+ * (cambio de estado) en que se otorgó: el resultado de una llamada admitida en un estado anterior se ignora, para que
+ * una llamada lenta admitida con el circuito cerrado no cuente como prueba exitosa ni devuelva permisos de prueba.
+ */
+final class DownstreamCircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    static final long REJECTED = -1;
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private State state = State.CLOSED;
+    private int index;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+    private long generation;
+
+    DownstreamCircuitBreaker(DownstreamProperties.CircuitBreaker properties) {
+        this.window = new boolean[properties.getWindowSize()];
+        this.minimumCalls = Math.min(properties.getMinimumCalls(), properties.getWindowSize());
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = Math.max(1, properties.getHalfOpenCalls());
+    }
+
+    /**
+     * Retorna el permiso (la generación actual) o REJECTED si el circuito no admite la llamada.
+     */
+    synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return REJECTED;
+            }
+            transition(State.HALF_OPEN);
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return REJECTED;
+            }
+            halfOpenPermits--;
+        }
+        return generation;
+    }
+
+    synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls && failures * 100L >= (long) failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    /**
+     * Llamada cancelada sin resultado: devuelve el permiso de prueba si lo había tomado en esta misma prueba.
+     */
+    synchronized void release(long permit) {
+        if (permit == generation && state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[index]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % window.length;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        transition(State.CLOSED);
+        index = 0;
+        recorded = 0;
+        failures = 0;
+    }
+
+    private void transition(State next) {
+        state = next;
+        generation++;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bank.pe.msaccounts.client;
+
+import com.bank.pe.msaccounts.config.DownstreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Crea un {@link Downstream} por servicio externo. Los clientes que llaman al mismo servicio comparten pool,
+ * bulkhead y circuit breaker. Los pools publican reactor.netty.connection.provider.* (activas, ociosas, pendientes).
+ */
+@Component
+public class DownstreamClients {
+
+    private final List<ConnectionProvider> connectionProviders = new ArrayList<>();
+    private final Downstream customers;
+    private final Downstream credits;
+
+    public DownstreamClients(DownstreamProperties properties, ObjectProvider<WebClient.Builder> webClientBuilders,
+                             MeterRegistry meterRegistry) {
+        this.customers = create("ms-customer", properties.getCustomers(), webClientBuilders, meterRegistry);
+        this.credits = create("ms-credits", properties.getCredits(), webClientBuilders, meterRegistry);
+    }
+
+    public Downstream customers() {
+        return customers;
+    }
+
+    public Downstream credits() {
+        return credits;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+
+    private Downstream create(String name, DownstreamProperties.Downstream properties,
+                              ObjectProvider<WebClient.Builder> webClientBuilders, MeterRegistry meterRegistry) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictionInterval())
+                .metrics(true)
+                .build();
+        connectionProviders.add(connectionProvider);
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+        WebClient webClient = webClientBuilders.getObject()
+                .baseUrl(properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new Downstream(name, webClient, properties, meterRegistry);
+    }
+}
@@ -1,16 +1,43 @@
 package com.bank.pe.msaccounts.config;
 
+import com.bank.pe.msaccounts.money.MoneyConverters;
+import com.bank.pe.msaccounts.rules.AccountRuleProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
-public class ApplicationConfig {
+@EnableConfigurationProperties({AccountRuleProperties.class, DownstreamProperties.class,
+        ConcurrencyLimitProperties.class})
+public class ApplicationConfig implements WebFluxConfigurer {
 
+    /**
+     * Un builder por cliente (prototype), con los customizers de Spring Boot: codecs de Jackson y la métrica
+     * http.client.requests etiquetada por plantilla de URI.
+     */
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+    public WebClient.Builder webClientBuilder(ObjectProvider<WebClientCustomizer> customizers) {
+        WebClient.Builder builder = WebClient.builder();
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return builder;
     }
 
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(MoneyConverters.mongo());
+    }
 
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(new MoneyConverters.StringToMoney());
+    }
 }
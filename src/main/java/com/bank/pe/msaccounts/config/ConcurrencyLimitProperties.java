@@ -0,0 +1,47 @@
+package com.bank.pe.msaccounts.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Límite adaptativo de solicitudes simultáneas por clase de endpoint (AIMD sobre la latencia observada). Cuando
+ * una clase alcanza su límite, sus solicitudes se rechazan al instante con 503 y Retry-After en lugar de encolarse.
+ */
+@Data
+@ConfigurationProperties(prefix = "ms-accounts.concurrency-limits")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    /**
+     * Los reportes ceden ante las transferencias: se rechazan mientras las transferencias usen esta fracción
+     * de su límite o más.
+     */
+    private double reportYieldUtilization = 0.75;
+    private Limit read = new Limit(200, 20, 1000, Duration.ofMillis(100));
+    private Limit write = new Limit(100, 10, 500, Duration.ofMillis(250));
+    private Limit transfer = new Limit(100, 10, 500, Duration.ofMillis(250));
+    private Limit report = new Limit(20, 2, 100, Duration.ofSeconds(2));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        /**
+         * Una respuesta más lenta que esto, o un 5xx, reduce el límite multiplicándolo por backoffRatio.
+         */
+        private Duration latencyThreshold;
+        private double backoffRatio = 0.9;
+
+        public Limit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+            this(initialLimit, minLimit, maxLimit, latencyThreshold, 0.9);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.pe.msaccounts.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Conexión a cada servicio externo: pool propio, timeouts, bulkhead, circuit breaker y ventana de respaldo.
+ * Un servicio lento agota solo su pool y su bulkhead, sin llenar los event loops con solicitudes en espera.
+ */
+@Data
+@ConfigurationProperties(prefix = "ms-accounts.clients")
+public class DownstreamProperties {
+
+    private Downstream customers = new Downstream("http://localhost:8081");
+    private Downstream credits = new Downstream("http://localhost:8083");
+
+    @Data
+    @NoArgsConstructor
+    public static class Downstream {
+        private String baseUrl;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(3);
+        // Pool de conexiones
+        private int maxConnections = 100;
+        private int pendingAcquireMaxCount = 200;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(1);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        /**
+         * Solicitudes simultáneas permitidas; las que excedan se rechazan al instante en lugar de encolarse.
+         */
+        private int maxConcurrentRequests = 64;
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        /**
+         * Cuánto tiempo puede servirse la última respuesta válida cuando el servicio falla; 0 lo desactiva.
+         */
+        private Duration staleWindow = Duration.ofMinutes(10);
+        private long staleMaxSize = 10000;
+
+        public Downstream(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private int windowSize = 50; // Últimas llamadas consideradas
+        private int minimumCalls = 20;
+        private int failureRateThreshold = 50; // Porcentaje
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 5;
+    }
+}
@@ -0,0 +1,46 @@
+package com.bank.pe.msaccounts.config;
+
+import com.bank.pe.msaccounts.metrics.MongoDocumentsListener;
+import com.bank.pe.msaccounts.metrics.TimedServiceProxy;
+import com.bank.pe.msaccounts.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Métricas de la aplicación. Las de HTTP (servidor y WebClient) y la latencia de comandos Mongo las aporta Spring Boot;
+ * aquí se agregan los timers del servicio, los documentos devueltos por Mongo y los schedulers de Reactor.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @PostConstruct
+    public void enableSchedulerMetrics() {
+        // Publica en el registro global, al que Spring Boot conecta sus registros
+        Schedulers.enableMetrics();
+    }
+
+    @Bean
+    public static BeanPostProcessor timedAccountServicePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof AccountService
+                        ? TimedServiceProxy.wrap(AccountService.class, (AccountService) bean,
+                                meterRegistry.getObject(), "accounts.service")
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDocumentsMetrics(MeterRegistry meterRegistry) {
+        return settings -> settings.addCommandListener(new MongoDocumentsListener(meterRegistry));
+    }
+}
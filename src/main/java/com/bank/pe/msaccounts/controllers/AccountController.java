@@ -1,6 +1,18 @@
 package com.bank.pe.msaccounts.controllers;
 
+import com.bank.pe.msaccounts.cache.IdempotencyStore;
+import com.bank.pe.msaccounts.dto.AccountCreationResultDTO;
 import com.bank.pe.msaccounts.dto.AccountDTO;
+import com.bank.pe.msaccounts.dto.AccountEventDTO;
+import com.bank.pe.msaccounts.dto.AccountFields;
+import com.bank.pe.msaccounts.dto.AccountMapper;
+import com.bank.pe.msaccounts.dto.CommissionSummaryDTO;
+import com.bank.pe.msaccounts.dto.TransactionRequestDTO;
+import com.bank.pe.msaccounts.dto.TransactionResultDTO;
+import com.bank.pe.msaccounts.dto.TransferRequestDTO;
+import com.bank.pe.msaccounts.dto.TransferResultDTO;
+import com.bank.pe.msaccounts.events.AccountEventPublisher;
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -9,17 +21,22 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import com.bank.pe.msaccounts.service.AccountService;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.money.Money;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/accounts")
@@ -28,27 +45,100 @@ import java.util.Map;
 public class AccountController {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountController.class);
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    private static final TypeReference<Map<String, String>> CREATE_RESPONSE = new TypeReference<>() { };
+    private static final TypeReference<String> TRANSFER_RESPONSE = new TypeReference<>() { };
     private final AccountService accountService;
+    private final AccountMapper accountMapper;
+    private final IdempotencyStore idempotencyStore;
+    private final AccountEventPublisher accountEventPublisher;
 
-    @Operation(summary = "Obtener todas las cuentas", description = "Lista todas las cuentas bancarias")
+    @Operation(summary = "Obtener todas las cuentas",
+            description = "Lista las cuentas bancarias paginadas por cursor; el cursor siguiente viaja en X-Next-Cursor")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cuentas obtenidas correctamente"),
+            @ApiResponse(responseCode = "400", description = "Cursor de paginación o campos inválidos"),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
-    @GetMapping
-    public Flux<Account> getAllAccounts() {
-        logger.info("Obteniendo todas las cuentas bancarias");
-        return accountService.listAccounts();
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<?>>> getAllAccounts(@RequestParam(required = false) String after,
+                                                        @RequestParam(defaultValue = "100") int limit,
+                                                        @RequestParam(required = false) String fields) {
+        logger.debug("Obteniendo cuentas bancarias (after={}, limit={}, fields={})", after, limit, fields);
+        Set<String> selected = AccountFields.parse(fields);
+        return accountService.listAccounts(after, limit, selected)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.getNextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                    }
+                    return response.body(view(page.getContent(), selected));
+                });
+    }
+
+    @Operation(summary = "Exportar todas las cuentas",
+            description = "Transmite todas las cuentas como NDJSON respetando la contrapresión del cliente")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Account> streamAllAccounts(@RequestParam(required = false) String after) {
+        logger.debug("Transmitiendo cuentas bancarias (after={})", after);
+        return accountService.streamAccounts(after);
     }
 
-    @Operation(summary = "Obtener una cuenta por ID", description = "Obtiene los detalles de una cuenta por ID")
+    @Operation(summary = "Feed de cambios de cuentas",
+            description = "Eventos SSE de alta, actualización, saldo y baja, filtrables por cliente o cuenta. "
+                    + "Se reanuda con Last-Event-ID mientras el evento siga en el búfer de repetición")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream de eventos"),
+            @ApiResponse(responseCode = "400", description = "Last-Event-ID inválido")
+    })
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AccountEventDTO>> streamAccountEvents(
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) String accountId,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        Long resumeFrom;
+        try {
+            resumeFrom = lastEventId == null || lastEventId.isBlank() ? null : Long.valueOf(lastEventId.trim());
+        } catch (NumberFormatException ex) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Last-Event-ID inválido"));
+        }
+        Flux<ServerSentEvent<AccountEventDTO>> events = accountEventPublisher.subscribe(customerId, accountId, resumeFrom)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(String.valueOf(event.getSequence()))
+                        .event(event.getType())
+                        .build());
+        // Comentarios periódicos para que proxies y balanceadores no cierren la conexión inactiva
+        Flux<ServerSentEvent<AccountEventDTO>> heartbeats = Flux.interval(accountEventPublisher.getHeartbeat())
+                .map(tick -> ServerSentEvent.<AccountEventDTO>builder().comment("keepalive").build());
+        return events.publish(shared -> Flux.merge(shared, heartbeats.takeUntilOther(shared.ignoreElements())));
+    }
+
+    @Operation(summary = "Obtener una cuenta por ID",
+            description = "Obtiene los detalles de una cuenta por ID; fields limita los campos de la respuesta")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cuenta encontrada"),
+            @ApiResponse(responseCode = "400", description = "Campos inválidos"),
             @ApiResponse(responseCode = "404", description = "Cuenta no encontrada")
     })
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<Account>> getAccountById(@PathVariable String id) {
+    public Mono<ResponseEntity<Object>> getAccountById(@PathVariable String id,
+                                                       @RequestParam(required = false) String fields) {
+        Set<String> selected = AccountFields.parse(fields);
+        // La cuenta completa suele venir de la caché: aquí fields solo reduce lo que se serializa
         return accountService.getAccount(id)
+                .map(account -> ResponseEntity.ok(selected == null ? account : AccountFields.select(account, selected)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Obtener una cuenta por número", description = "Busca una cuenta bancaria por su número")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cuenta encontrada"),
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada")
+    })
+    @GetMapping("/byNumber/{number}")
+    public Mono<ResponseEntity<Account>> getAccountByNumber(@PathVariable String number) {
+        return accountService.getAccountByNumber(number)
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
@@ -58,23 +148,39 @@ public class AccountController {
             @ApiResponse(responseCode = "201", description = "Cuenta creada correctamente"),
             @ApiResponse(responseCode = "400", description = "Error en la validación de la cuenta"),
             @ApiResponse(responseCode = "404", description = "Cliente no encontrado"),
+            @ApiResponse(responseCode = "409", description = "Solicitud con la misma Idempotency-Key en proceso"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key reutilizada con otra solicitud"),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @PostMapping
-    public Mono<ResponseEntity<Map<String, String>>> createAccount(@RequestBody AccountDTO account) {
-        return accountService.createAccount(convertDtoToEntity(account))
-                .map(savedAccount -> ResponseEntity.status(HttpStatus.CREATED)
-                        .body(Map.of("message", "Cuenta creada exitosamente", "id", savedAccount.getId())))
-                .onErrorResume(ResponseStatusException.class, ex -> {
-                    Map<String, String> errorResponse = Map.of(
-                            "error", ex.getReason(),
-                            "status", String.valueOf(ex.getRawStatusCode())
-                    );
-                    return Mono.just(ResponseEntity.status(ex.getRawStatusCode()).body(errorResponse));
-                });
+    public Mono<ResponseEntity<Map<String, String>>> createAccount(
+            @RequestBody AccountDTO account,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("create-account", idempotencyKey, account, CREATE_RESPONSE, () ->
+                accountService.createAccount(accountMapper.toEntity(account))
+                        .map(savedAccount -> ResponseEntity.status(HttpStatus.CREATED)
+                                .body(Map.of("message", "Cuenta creada exitosamente", "id", savedAccount.getId())))
+                        .onErrorResume(ResponseStatusException.class, ex -> {
+                            Map<String, String> errorResponse = Map.of(
+                                    "error", ex.getReason(),
+                                    "status", String.valueOf(ex.getRawStatusCode())
+                            );
+                            return Mono.just(ResponseEntity.status(ex.getRawStatusCode()).body(errorResponse));
+                        }));
     }
 
 
+    @Operation(summary = "Alta masiva de cuentas",
+            description = "Recibe cuentas en NDJSON y devuelve un resultado NDJSON por cada una, en el mismo orden")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados transmitidos por cuenta")
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AccountCreationResultDTO> createAccounts(@RequestBody Flux<AccountDTO> accounts) {
+        logger.info("Procesando alta masiva de cuentas");
+        return accountService.createAccounts(accounts.map(accountMapper::toEntity));
+    }
+
     @Operation(summary = "Actualizar saldo de una cuenta")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Saldo actualizado correctamente"),
@@ -84,11 +190,25 @@ public class AccountController {
     public Mono<ResponseEntity<Account>> updateAccount(@PathVariable String id, @RequestBody AccountDTO updatedAccount) {
 
 
-        return accountService.updateAccount(id, convertDtoToEntity(updatedAccount))
+        return accountService.updateAccount(id, accountMapper.toEntity(updatedAccount))
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Registrar un depósito o retiro",
+            description = "Aplica la transacción y la comisión por exceso de transacciones en una sola operación atómica")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transacción registrada correctamente"),
+            @ApiResponse(responseCode = "400", description = "Saldo insuficiente, límite alcanzado o datos inválidos"),
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada")
+    })
+    @PostMapping("/{id}/transactions")
+    public Mono<ResponseEntity<TransactionResultDTO>> postTransaction(@PathVariable String id,
+                                                                      @RequestBody TransactionRequestDTO transaction) {
+        return accountService.postTransaction(id, transaction)
+                .map(ResponseEntity::ok);
+    }
+
     @Operation(summary = "Eliminar una cuenta bancaria")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cuenta eliminada correctamente"),
@@ -106,43 +226,65 @@ public class AccountController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transferencia realizada con éxito"),
             @ApiResponse(responseCode = "400", description = "Saldo insuficiente"),
-            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada")
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada"),
+            @ApiResponse(responseCode = "409", description = "Solicitud con la misma Idempotency-Key en proceso"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key reutilizada con otra solicitud")
     })
     @PostMapping("/transfer")
     public Mono<ResponseEntity<String>> transferFunds(@RequestParam String fromAccountId,
                                                       @RequestParam String toAccountId,
-                                                      @RequestParam Double amount) {
+                                                      @RequestParam Money amount,
+                                                      @RequestHeader(value = IdempotencyStore.HEADER, required = false)
+                                                      String idempotencyKey) {
+        List<String> request = List.of(fromAccountId, toAccountId, amount.toString());
+        return idempotencyStore.execute("transfer", idempotencyKey, request, TRANSFER_RESPONSE, () ->
+                accountService.transferBetweenAccounts(fromAccountId, toAccountId, amount)
+                        .then(Mono.just(ResponseEntity.ok("Transferencia realizada con éxito")))
+                        .onErrorResume(ResponseStatusException.class, ex -> {
+                            logger.debug("Transferencia rechazada: {}", ex.getReason());
+                            return Mono.just(ResponseEntity.status(ex.getRawStatusCode()).body(ex.getReason()));
+                        }));
+    }
 
-        return accountService.transferBetweenAccounts(fromAccountId, toAccountId, amount)
-                .then(Mono.just(ResponseEntity.ok("Transferencia realizada con éxito")))
-                .onErrorResume(ResponseStatusException.class, ex -> {
-                    logger.error("Error en transferencia: {}", ex.getReason());
-                    return Mono.just(ResponseEntity.status(ex.getRawStatusCode()).body(ex.getReason()));
-                });
+    @Operation(summary = "Transferencias masivas",
+            description = "Recibe transferencias en NDJSON y devuelve un resultado NDJSON por cada una, en el mismo orden")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados transmitidos por transferencia")
+    })
+    @PostMapping(value = "/transfer/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransferResultDTO> bulkTransfer(@RequestBody Flux<TransferRequestDTO> transfers) {
+        logger.info("Procesando transferencias masivas");
+        return accountService.transferBatch(transfers);
     }
 
-    @Operation(summary = "Obtener reporte de saldo promedio diario de un cliente")
+    @Operation(summary = "Obtener reporte de saldo promedio diario de un cliente",
+            description = "Promedio de los saldos de cierre de cada día del mes en curso, por número de cuenta")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Reporte generado con éxito"),
             @ApiResponse(responseCode = "404", description = "Cliente no encontrado")
     })
     @GetMapping("/report/daily-balance/{customerId}")
-    public Mono<ResponseEntity<Map<String, Double>>> getDailyBalanceReport(@PathVariable String customerId) {
+    public Mono<ResponseEntity<Map<String, Money>>> getDailyBalanceReport(@PathVariable String customerId) {
 
         return accountService.getDailyBalanceReport(customerId)
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
-    @Operation(summary = "Obtener reporte de comisiones cobradas en un período de tiempo")
+    @Operation(summary = "Obtener reporte de comisiones cobradas en un período de tiempo",
+            description = "Reporte paginado por cursor; el cursor de la página siguiente viaja en X-Next-Cursor")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Reporte generado con éxito"),
-            @ApiResponse(responseCode = "400", description = "Fechas inválidas")
+            @ApiResponse(responseCode = "400", description = "Fechas o cursor de paginación inválidos")
     })
-    @GetMapping("/report/commissions")
-    public Flux<Account> getCommissionReport(
+    @GetMapping(value = "/report/commissions",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<Account>>> getCommissionReport(
             @RequestParam String startDate,
-            @RequestParam String endDate) {
+            @RequestParam String endDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "500") int limit) {
 
         DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
 
@@ -153,42 +295,65 @@ public class AccountController {
 
         // Validación de fechas
         if (start.isAfter(end)) {
-            return Flux.error(new ResponseStatusException(
+            return Mono.error(new ResponseStatusException(
                     HttpStatus.BAD_REQUEST, "La fecha de inicio debe ser anterior a la fecha de fin"));
         }
 
-        return accountService.getCommissionReport(start, end);
+        return accountService.getCommissionReport(start, end, after, limit)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.getNextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                    }
+                    return response.body(page.getContent());
+                });
     }
 
+    @Operation(summary = "Obtener el total de comisiones cobradas en un período",
+            description = "Suma los acumulados diarios y mensuales del libro de comisiones, agrupados por TIPO_CUENTA o CLIENTE")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totales calculados con éxito"),
+            @ApiResponse(responseCode = "400", description = "Fechas o agrupación inválidas")
+    })
+    @GetMapping("/report/commissions/totals")
+    public Mono<CommissionSummaryDTO> getCommissionTotals(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "TIPO_CUENTA") String groupBy) {
+
+        LocalDate start = LocalDate.parse(startDate, DateTimeFormatter.ISO_LOCAL_DATE);
+        LocalDate end = LocalDate.parse(endDate, DateTimeFormatter.ISO_LOCAL_DATE);
+        if (start.isAfter(end)) {
+            return Mono.error(new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "La fecha de inicio debe ser anterior a la fecha de fin"));
+        }
+        return accountService.getCommissionTotals(start, end, groupBy);
+    }
 
-    @Operation(summary = "Obtener una cuenta por ID cliente", description = "Obtiene las cuentas registradas por cliente")
+    @Operation(summary = "Obtener una cuenta por ID cliente",
+            description = "Obtiene las cuentas registradas por cliente; con fields (o fields=summary) Mongo devuelve solo esos campos")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cuenta encontrada"),
+            @ApiResponse(responseCode = "400", description = "Campos inválidos"),
             @ApiResponse(responseCode = "404", description = "Cuenta no encontrada")
     })
     @GetMapping("/customer/{id}")
-    public Flux<Account> getAccountsByCustomer(@PathVariable String id) {
-        return accountService.getAccountsByCustomer(id)
-                .switchIfEmpty(Flux.empty());
-    }
-
-    private Account convertDtoToEntity(AccountDTO accountDTO) {
-        return new Account(
-                null,
-                accountDTO.getNumber(),
-                accountDTO.getType(),
-                accountDTO.getCustomerId(),
-                accountDTO.getBalance(),
-                accountDTO.isHasMaintenanceFee(),
-                accountDTO.getTransactionLimit(),
-                accountDTO.getAuthorizedSigners(),
-                accountDTO.getCommissionFee(),
-                accountDTO.getMinimumOpeningBalance(),
-                LocalDateTime.now(),
-                accountDTO.getFreeTransactions(),
-                accountDTO.getTransactionCount(),
-                LocalDateTime.now()
-        );
+    public Flux<?> getAccountsByCustomer(@PathVariable String id, @RequestParam(required = false) String fields) {
+        Set<String> selected = AccountFields.parse(fields);
+        if (AccountFields.isSummary(selected)) {
+            return accountService.getAccountSummariesByCustomer(id);
+        }
+        Flux<Account> accounts = accountService.getAccountsByCustomer(id, selected);
+        return selected == null ? accounts : accounts.map(account -> AccountFields.select(account, selected));
+    }
+
+    private static List<?> view(List<Account> accounts, Set<String> fields) {
+        if (fields == null) {
+            return accounts;
+        }
+        List<Map<String, Object>> views = new ArrayList<>(accounts.size());
+        accounts.forEach(account -> views.add(AccountFields.select(account, fields)));
+        return views;
     }
 }
 
@@ -0,0 +1,20 @@
+package com.bank.pe.msaccounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountCreationResultDTO {
+    public static final String CREATED = "CREADA";
+    public static final String REJECTED = "RECHAZADA";
+
+    private String number;
+    private String customerId;
+    private String id; // Solo si la cuenta fue creada
+    private String status; // CREADA o RECHAZADA
+    private int statusCode;
+    private String message;
+}
@@ -1,5 +1,6 @@
 package com.bank.pe.msaccounts.dto;
 
+import com.bank.pe.msaccounts.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,12 +16,12 @@ public class AccountDTO {
     private String number;
     private String type;
     private String customerId;
-    private Double balance;
+    private Money balance;
     private boolean hasMaintenanceFee;
     private int transactionLimit;
     private List<String> authorizedSigners;
-    private Double commissionFee;
-    private Double minimumOpeningBalance;
+    private Money commissionFee;
+    private Money minimumOpeningBalance;
     private LocalDateTime lastTransactionDate;
     private Integer freeTransactions;
     private Integer transactionCount;
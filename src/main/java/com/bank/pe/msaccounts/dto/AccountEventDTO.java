@@ -0,0 +1,36 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.money.Money;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de una cuenta publicado en /api/v1/accounts/events. REINICIO indica que el Last-Event-ID ya no está en el
+ * búfer de repetición, o que el change stream perdió cambios, y el consumidor debe volver a consultar las cuentas
+ * antes de seguir con el feed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AccountEventDTO {
+    public static final String CREATED = "CREADA";
+    public static final String UPDATED = "ACTUALIZADA";
+    public static final String BALANCE_CHANGED = "SALDO";
+    public static final String DELETED = "ELIMINADA";
+    public static final String RESET = "REINICIO";
+
+    private long sequence;
+    private String type;
+    private String accountId;
+    private String customerId;
+    private String number;
+    private Money balance; // Saldo resultante; ausente si no se conoce (transferencias masivas)
+    private Money amount; // Movimiento que originó el cambio de saldo
+    private Long version;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,83 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.entity.Account;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Parámetro fields= de las lecturas de cuentas: lista separada por comas de propiedades de Account. El id se
+ * incluye siempre (es el cursor de paginación) y "summary" equivale a id, number, type, customerId y balance.
+ */
+public final class AccountFields {
+
+    public static final String SUMMARY = "summary";
+    public static final Set<String> SUMMARY_FIELDS =
+            Collections.unmodifiableSet(new LinkedHashSet<>(Set.of("id", "number", "type", "customerId", "balance")));
+
+    // En el orden de declaración de Account, que es el orden en que se escriben
+    private static final Map<String, Function<Account, Object>> GETTERS = new LinkedHashMap<>();
+
+    static {
+        GETTERS.put("id", Account::getId);
+        GETTERS.put("number", Account::getNumber);
+        GETTERS.put("type", Account::getType);
+        GETTERS.put("customerId", Account::getCustomerId);
+        GETTERS.put("balance", Account::getBalance);
+        GETTERS.put("hasMaintenanceFee", Account::isHasMaintenanceFee);
+        GETTERS.put("transactionLimit", Account::getTransactionLimit);
+        GETTERS.put("authorizedSigners", Account::getAuthorizedSigners);
+        GETTERS.put("commissionFee", Account::getCommissionFee);
+        GETTERS.put("minimumOpeningBalance", Account::getMinimumOpeningBalance);
+        GETTERS.put("lastTransactionDate", Account::getLastTransactionDate);
+        GETTERS.put("freeTransactions", Account::getFreeTransactions);
+        GETTERS.put("transactionCount", Account::getTransactionCount);
+        GETTERS.put("createdAt", Account::getCreatedAt);
+        GETTERS.put("version", Account::getVersion);
+    }
+
+    private AccountFields() {
+    }
+
+    /**
+     * Retorna null si no se pidió una selección (se devuelve la cuenta completa).
+     */
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (SUMMARY.equals(name)) {
+                selected.addAll(SUMMARY_FIELDS);
+            } else if (GETTERS.containsKey(name)) {
+                selected.add(name);
+            } else if (!name.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Campo desconocido en fields: " + name);
+            }
+        }
+        return Collections.unmodifiableSet(selected);
+    }
+
+    public static boolean isSummary(Set<String> fields) {
+        return SUMMARY_FIELDS.equals(fields);
+    }
+
+    public static Map<String, Object> select(Account account, Set<String> fields) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        GETTERS.forEach((name, getter) -> {
+            if (fields.contains(name)) {
+                view.put(name, getter.apply(account));
+            }
+        });
+        return view;
+    }
+}
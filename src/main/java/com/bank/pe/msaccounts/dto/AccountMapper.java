@@ -0,0 +1,40 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.rules.AccountRuleEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conversión de AccountDTO a entidad. El tipo de cuenta se normaliza aquí una sola vez contra el catálogo
+ * de productos; si no está en el catálogo se conserva tal cual y las reglas de apertura lo rechazan.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountMapper {
+
+    private final AccountRuleEngine accountRuleEngine;
+
+    public Account toEntity(AccountDTO accountDTO) {
+        String type = accountRuleEngine.canonicalProductType(accountDTO.getType());
+        return new Account(
+                null,
+                accountDTO.getNumber(),
+                type != null ? type : accountDTO.getType(),
+                accountDTO.getCustomerId(),
+                accountDTO.getBalance(),
+                accountDTO.isHasMaintenanceFee(),
+                accountDTO.getTransactionLimit(),
+                accountDTO.getAuthorizedSigners(),
+                accountDTO.getCommissionFee(),
+                accountDTO.getMinimumOpeningBalance(),
+                LocalDateTime.now(),
+                accountDTO.getFreeTransactions(),
+                accountDTO.getTransactionCount(),
+                LocalDateTime.now(),
+                null
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.bank.pe.msaccounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class AccountPageDTO<T> {
+    private List<T> content;
+    private String nextCursor; // Token opaco para la siguiente página, null si es la última
+}
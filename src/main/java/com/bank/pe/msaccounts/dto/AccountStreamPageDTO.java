@@ -0,0 +1,12 @@
+package com.bank.pe.msaccounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import reactor.core.publisher.Flux;
+
+@Data
+@AllArgsConstructor
+public class AccountStreamPageDTO<T> {
+    private Flux<T> content; // Se transmite sin acumular la página en memoria
+    private String nextCursor; // Token opaco para la siguiente página, null si es la última
+}
@@ -0,0 +1,21 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vista ligera de una cuenta (fields=summary). También es la proyección DTO de AccountRepository: Mongo devuelve
+ * solo estos campos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountSummaryDTO {
+    private String id;
+    private String number;
+    private String type;
+    private String customerId;
+    private Money balance;
+}
@@ -0,0 +1,21 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommissionSummaryDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String groupBy; // TIPO_CUENTA o CLIENTE
+    private Money total;
+    private long count;
+    private List<CommissionTotalDTO> totals;
+}
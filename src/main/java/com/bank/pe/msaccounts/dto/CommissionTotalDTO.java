@@ -0,0 +1,15 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommissionTotalDTO {
+    private String key; // Tipo de cuenta o id de cliente, según la agrupación
+    private Money total;
+    private long count; // Cantidad de comisiones cobradas
+}
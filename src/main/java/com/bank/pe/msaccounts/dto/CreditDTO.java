@@ -1,5 +1,8 @@
 package com.bank.pe.msaccounts.dto;
 
+import com.bank.pe.msaccounts.money.Money;
+import com.bank.pe.msaccounts.money.MoneyJson;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 import org.bson.codecs.pojo.annotations.BsonId;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -8,10 +11,14 @@ import org.springframework.data.mongodb.core.mapping.Document;
 public class CreditDTO {
     private String id;
     private String customerId; // Relación con Cliente
-    private Double amount;
+    @JsonDeserialize(using = MoneyJson.RoundingDeserializer.class)
+    private Money amount;
     private String creditType; // "personal", "empresarial", "	Tarjeta de Crédito "
     private Double interestRate;
-    private Double creditLimit;
-    private Double currentDebt;
-    private Double availableLimit;
+    @JsonDeserialize(using = MoneyJson.RoundingDeserializer.class)
+    private Money creditLimit;
+    @JsonDeserialize(using = MoneyJson.RoundingDeserializer.class)
+    private Money currentDebt;
+    @JsonDeserialize(using = MoneyJson.RoundingDeserializer.class)
+    private Money availableLimit;
 }
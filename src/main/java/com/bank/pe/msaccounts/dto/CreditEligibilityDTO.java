@@ -0,0 +1,14 @@
+package com.bank.pe.msaccounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreditEligibilityDTO {
+    private String customerId;
+    private boolean hasOverdueDebt;
+    private Boolean hasCreditCard; // null si no se pudo determinar
+}
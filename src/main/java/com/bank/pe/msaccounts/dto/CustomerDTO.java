@@ -1,9 +1,11 @@
 package com.bank.pe.msaccounts.dto;
 
+import com.bank.pe.msaccounts.rules.CustomerProfile;
+import com.bank.pe.msaccounts.rules.CustomerType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
-import org.springframework.data.mongodb.core.index.Indexed;
-
-import java.util.List;
+import lombok.Setter;
 
 @Data
 public class CustomerDTO {
@@ -13,4 +15,22 @@ public class CustomerDTO {
     private String numberDocument; // DNI o RUC
     private String email;
     private String profile; // VIP, PYME
+
+    // Se resuelven una sola vez al deserializar para no comparar cadenas en cada regla
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private CustomerType customerType = CustomerType.UNKNOWN;
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private CustomerProfile customerProfile = CustomerProfile.NONE;
+
+    public void setType(String type) {
+        this.type = type;
+        this.customerType = CustomerType.parse(type);
+    }
+
+    public void setProfile(String profile) {
+        this.profile = profile;
+        this.customerProfile = CustomerProfile.parse(profile);
+    }
 }
@@ -0,0 +1,14 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionRequestDTO {
+    private String type; // DEPOSITO o RETIRO
+    private Money amount;
+}
@@ -0,0 +1,21 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionResultDTO {
+    private String accountId;
+    private String type;
+    private Money amount;
+    private Money commission; // Comisión cobrada por exceder las transacciones libres
+    private Money balance; // Saldo después de la transacción
+    private Integer transactionCount;
+    private LocalDateTime date;
+}
@@ -0,0 +1,16 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferRequestDTO {
+    private String reference; // Identificador del cliente para correlacionar el resultado
+    private String fromAccountId;
+    private String toAccountId;
+    private Money amount;
+}
@@ -0,0 +1,22 @@
+package com.bank.pe.msaccounts.dto;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferResultDTO {
+    public static final String APPLIED = "APLICADA";
+    public static final String REJECTED = "RECHAZADA";
+
+    private String reference;
+    private String fromAccountId;
+    private String toAccountId;
+    private Money amount;
+    private String status; // APLICADA o RECHAZADA
+    private int statusCode;
+    private String message;
+}
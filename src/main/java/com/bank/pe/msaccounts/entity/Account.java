@@ -1,9 +1,13 @@
 package com.bank.pe.msaccounts.entity;
 
+import com.bank.pe.msaccounts.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.bson.codecs.pojo.annotations.BsonId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -13,22 +17,26 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @Document(collection = "accounts")
+@CompoundIndex(name = "commission_report_idx", def = "{'hasMaintenanceFee': 1, 'lastTransactionDate': 1, '_id': 1}")
 public class Account {
     @BsonId
     private String id;
+    @Indexed(unique = true, sparse = true)
     private String number;
     private String type; // Ahorro, Corriente, Plazo Fijo
     private String customerId;
-    private Double balance;
+    private Money balance;
     private boolean hasMaintenanceFee;
     private int transactionLimit;
     private List<String> authorizedSigners; // Firmantes autorizados (solo para cuentas empresariales)
-    private Double commissionFee; // Comisión por transacción adicional
-    private Double minimumOpeningBalance; // Monto mínimo de apertura
+    private Money commissionFee; // Comisión por transacción adicional
+    private Money minimumOpeningBalance; // Monto mínimo de apertura
     private LocalDateTime lastTransactionDate;
     private Integer freeTransactions; // Número de transacciones sin comisión
     private Integer transactionCount; // Contador de transacciones
     private LocalDateTime createdAt; // Fecha de creación de la cuenta
+    @Version
+    private Long version; // Control de concurrencia optimista
 
     public Account() {
         this.lastTransactionDate = LocalDateTime.now();
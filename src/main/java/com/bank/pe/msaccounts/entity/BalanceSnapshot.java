@@ -0,0 +1,48 @@
+package com.bank.pe.msaccounts.entity;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Movimiento de saldo de una cuenta en un mes, mantenido con $inc a medida que el saldo cambia.
+ * netByDay guarda el neto de cada día con movimiento; los días sin movimiento conservan el cierre del día anterior.
+ * weightedDelta acumula delta * (día - 1), con lo que la suma de cierres diarios del mes hasta el día T es
+ * T * saldoActual - weightedDelta, sin recorrer el historial.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "balance_snapshots")
+public class BalanceSnapshot {
+    @Id
+    private String id; // accountId:yyyy-MM
+    private String accountId;
+    private String month; // yyyy-MM
+    private Map<String, Money> netByDay = new HashMap<>(); // Clave: día del mes
+    private Money weightedDelta;
+    private LocalDateTime updatedAt;
+
+    public static String idOf(String accountId, YearMonth month) {
+        return accountId + ":" + month;
+    }
+
+    /**
+     * Saldo promedio diario del mes hasta el día indicado (inclusive), dado el saldo al cierre de ese día.
+     */
+    public static Money averageDailyBalance(Money closingBalance, BalanceSnapshot snapshot, LocalDate upTo) {
+        long days = upTo.getDayOfMonth();
+        long weighted = snapshot == null ? 0 : Money.minorUnitsOf(snapshot.getWeightedDelta());
+        return Money.ofMinor(Math.subtractExact(Math.multiplyExact(days, Money.minorUnitsOf(closingBalance)), weighted))
+                .divide(days);
+    }
+}
@@ -0,0 +1,39 @@
+package com.bank.pe.msaccounts.entity;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Asiento del libro de comisiones: una entrada por cada comisión efectivamente cobrada. Solo se agregan entradas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "commission_ledger")
+public class CommissionEntry {
+    public static final String MAINTENANCE_FEE = "MANTENIMIENTO";
+    public static final String EXCESS_TRANSACTION = "TRANSACCION_ADICIONAL";
+
+    @Id
+    private String id;
+    @Indexed
+    private String accountId;
+    private String customerId;
+    private String accountType;
+    private String kind; // MANTENIMIENTO o TRANSACCION_ADICIONAL
+    private Money amount;
+    @Indexed
+    private LocalDateTime chargedAt;
+
+    public static CommissionEntry of(Account account, String kind, Money amount, LocalDateTime chargedAt) {
+        return new CommissionEntry(null, account.getId(), account.getCustomerId(),
+                CustomerPortfolio.typeKey(account.getType()), kind, amount, chargedAt);
+    }
+}
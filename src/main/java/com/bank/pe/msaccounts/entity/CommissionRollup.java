@@ -0,0 +1,41 @@
+package com.bank.pe.msaccounts.entity;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Total de comisiones de un período (día o mes) para una clave de una dimensión (tipo de cuenta o cliente).
+ * Se mantiene con $inc a partir de cada asiento del libro.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "commission_rollups")
+@CompoundIndex(name = "commission_rollup_period_idx", def = "{'dimension': 1, 'granularity': 1, 'period': 1}")
+public class CommissionRollup {
+    public static final String DAILY = "DIARIO";
+    public static final String MONTHLY = "MENSUAL";
+    public static final String BY_ACCOUNT_TYPE = "TIPO_CUENTA";
+    public static final String BY_CUSTOMER = "CLIENTE";
+
+    @Id
+    private String id; // granularity:period:dimension:key
+    private String granularity;
+    private String period; // yyyy-MM-dd o yyyy-MM
+    private String dimension;
+    private String key;
+    private Money total;
+    private long count;
+    private LocalDateTime updatedAt;
+
+    public static String idOf(String granularity, String period, String dimension, String key) {
+        return granularity + ":" + period + ":" + dimension + ":" + key;
+    }
+}
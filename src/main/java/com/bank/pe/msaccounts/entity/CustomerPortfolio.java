@@ -0,0 +1,58 @@
+package com.bank.pe.msaccounts.entity;
+
+import com.bank.pe.msaccounts.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resumen por cliente mantenido de forma incremental: cantidad de cuentas por tipo y saldo total.
+ * Permite evaluar las reglas de apertura sin cargar todas las cuentas del cliente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "customer_portfolios")
+public class CustomerPortfolio {
+    @Id
+    private String customerId;
+    private Map<String, Integer> accountsByType = new HashMap<>(); // Clave: tipo de cuenta en mayúsculas
+    private Money totalBalance;
+    private LocalDateTime updatedAt;
+    private String rebuildToken; // Solo en el resumen provisional de una reconstrucción en curso
+
+    public CustomerPortfolio(String customerId, Map<String, Integer> accountsByType, Money totalBalance,
+                             LocalDateTime updatedAt) {
+        this(customerId, accountsByType, totalBalance, updatedAt, null);
+    }
+
+    /**
+     * Un resumen provisional aún no tiene los conteos: no sirve para evaluar reglas.
+     */
+    public boolean isRebuilding() {
+        return rebuildToken != null;
+    }
+
+    public static String typeKey(String accountType) {
+        return accountType == null ? null : accountType.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Recibe la clave ya normalizada con typeKey (el motor de reglas la precalcula por producto): no se normaliza
+     * en cada evaluación.
+     */
+    public int countOf(String typeKey) {
+        if (accountsByType == null || typeKey == null) {
+            return 0;
+        }
+        Integer count = accountsByType.get(typeKey);
+        return count == null ? 0 : count;
+    }
+}
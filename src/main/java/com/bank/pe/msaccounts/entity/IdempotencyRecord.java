@@ -0,0 +1,32 @@
+package com.bank.pe.msaccounts.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reserva y respuesta de una solicitud con Idempotency-Key. Mongo elimina el documento al llegar a expiresAt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+    public static final String IN_PROGRESS = "EN_PROCESO";
+    public static final String COMPLETED = "COMPLETADO";
+
+    @Id
+    private String id; // operación:clave
+    private String fingerprint; // Hash de la solicitud, para detectar una clave reutilizada con otro contenido
+    private String status;
+    private Integer responseStatus;
+    private String responseBody; // JSON
+    private LocalDateTime reservedAt;
+    @Indexed(name = "idempotency_expiry_idx", expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,143 @@
+package com.bank.pe.msaccounts.events;
+
+import com.bank.pe.msaccounts.dto.AccountEventDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Alimenta el feed de eventos desde el change stream de la colección accounts. Requiere un replica set; tras una
+ * caída se reanuda desde el último resume token recibido. Si ese token ya salió del oplog, se descarta, se abre el
+ * stream desde el momento actual y se publica REINICIO para que los suscriptores resincronicen.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ms-accounts.events.source", havingValue = AccountEventPublisher.SOURCE_CHANGE_STREAM)
+public class AccountChangeStreamSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountChangeStreamSource.class);
+    // ChangeStreamHistoryLost y ChangeStreamFatalError (versiones anteriores a 4.4): el resume token ya no sirve
+    private static final Set<Integer> HISTORY_LOST_CODES = Set.of(286, 280);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final AccountEventPublisher publisher;
+    private final AtomicReference<BsonValue> resumeToken = new AtomicReference<>();
+    private volatile Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = Flux.defer(() -> {
+                    ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                            .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+                    if (resumeToken.get() != null) {
+                        options.resumeAfter(resumeToken.get());
+                    }
+                    return mongoTemplate.changeStream(mongoTemplate.getCollectionName(Account.class), options.build(),
+                            Account.class);
+                })
+                .doOnError(ex -> {
+                    if (isHistoryLost(ex)) {
+                        logger.error("El resume token del change stream de cuentas ya no está en el oplog, se reinicia el feed");
+                        resumeToken.set(null);
+                        publisher.publishReset();
+                    } else {
+                        logger.warn("Change stream de cuentas interrumpido, se reanuda: {}", ex.getMessage());
+                    }
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(this::onChange);
+    }
+
+    private void onChange(ChangeStreamEvent<Account> change) {
+        resumeToken.set(change.getResumeToken());
+        AccountEventDTO event = toEvent(change);
+        if (event != null) {
+            publisher.publish(event);
+        }
+    }
+
+    private static boolean isHistoryLost(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoServerException && HISTORY_LOST_CODES.contains(((MongoServerException) cause).getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static AccountEventDTO toEvent(ChangeStreamEvent<Account> change) {
+        if (change.getOperationType() == null) {
+            return null;
+        }
+        AccountEventDTO event = new AccountEventDTO();
+        switch (change.getOperationType()) {
+            case INSERT:
+                event.setType(AccountEventDTO.CREATED);
+                break;
+            case UPDATE:
+            case REPLACE:
+                event.setType(isBalanceUpdate(change.getRaw()) ? AccountEventDTO.BALANCE_CHANGED : AccountEventDTO.UPDATED);
+                break;
+            case DELETE:
+                event.setType(AccountEventDTO.DELETED);
+                break;
+            default:
+                return null;
+        }
+        Account account = change.getBody();
+        if (account != null) {
+            event.setAccountId(account.getId());
+            event.setCustomerId(account.getCustomerId());
+            event.setNumber(account.getNumber());
+            event.setBalance(account.getBalance());
+            event.setVersion(account.getVersion());
+        } else if (change.getRaw() != null && change.getRaw().getDocumentKey() != null) {
+            // Bajas: sin documento completo, solo la clave; el filtro por cliente no las incluye
+            event.setAccountId(idOf(change.getRaw().getDocumentKey()));
+        }
+        return event;
+    }
+
+    private static boolean isBalanceUpdate(ChangeStreamDocument<Document> raw) {
+        UpdateDescription update = raw == null ? null : raw.getUpdateDescription();
+        return update != null && update.getUpdatedFields() != null && update.getUpdatedFields().containsKey("balance");
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        BsonValue id = documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.bank.pe.msaccounts.events;
+
+import com.bank.pe.msaccounts.dto.AccountEventDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.money.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feed interno de cambios de cuentas. Cada evento recibe un número de secuencia y queda en un búfer circular para
+ * reanudar suscripciones con Last-Event-ID. Cada suscriptor tiene su propio búfer acotado: si se llena, según
+ * lag-policy se descarta el evento solo para ese suscriptor (drop) o se le cierra el stream (disconnect) para que
+ * se reconecte desde su último id; un consumidor lento nunca frena la publicación ni a los demás.
+ *
+ * Con source=change-stream los eventos llegan del change stream de Mongo (AccountChangeStreamSource) y las
+ * publicaciones del servicio se ignoran, así cada instancia ve los cambios hechos por las demás.
+ */
+@Component
+public class AccountEventPublisher {
+
+    public static final String SOURCE_CHANGE_STREAM = "change-stream";
+    public static final String LAG_DISCONNECT = "disconnect";
+
+    private final Sinks.Many<AccountEventDTO> sink = Sinks.many().multicast().directBestEffort();
+    private final AccountEventDTO[] replay;
+    private final int subscriberBuffer;
+    private final boolean disconnectLagging;
+    private final boolean serviceSource;
+    @Getter
+    private final Duration heartbeat;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter dropped;
+    private final Counter disconnected;
+    private long lastSequence; // Protegido por el monitor de la instancia, igual que replay
+
+    public AccountEventPublisher(MeterRegistry meterRegistry,
+                                 @Value("${ms-accounts.events.source:service}") String source,
+                                 @Value("${ms-accounts.events.replay-size:1024}") int replaySize,
+                                 @Value("${ms-accounts.events.subscriber-buffer:256}") int subscriberBuffer,
+                                 @Value("${ms-accounts.events.lag-policy:disconnect}") String lagPolicy,
+                                 @Value("${ms-accounts.events.heartbeat:15s}") Duration heartbeat) {
+        this.replay = new AccountEventDTO[replaySize];
+        this.subscriberBuffer = subscriberBuffer;
+        this.disconnectLagging = LAG_DISCONNECT.equalsIgnoreCase(lagPolicy);
+        this.serviceSource = !SOURCE_CHANGE_STREAM.equalsIgnoreCase(source);
+        this.heartbeat = heartbeat;
+        this.dropped = meterRegistry.counter("accounts.events.dropped");
+        this.disconnected = meterRegistry.counter("accounts.events.lagging.disconnected");
+        meterRegistry.gauge("accounts.events.subscribers", subscribers);
+    }
+
+    public void accountChanged(String type, Account account) {
+        if (serviceSource && account != null) {
+            publish(event(type, account, account.getBalance(), null));
+        }
+    }
+
+    public void balanceChanged(Account account, Money amount) {
+        if (serviceSource && account != null) {
+            publish(event(AccountEventDTO.BALANCE_CHANGED, account, account.getBalance(), amount));
+        }
+    }
+
+    /**
+     * Movimiento aplicado sobre una lectura previa de la cuenta: el saldo resultante no se conoce y se omite.
+     */
+    public void balanceMoved(Account account, Money amount) {
+        if (serviceSource && account != null) {
+            AccountEventDTO event = event(AccountEventDTO.BALANCE_CHANGED, account, null, amount);
+            event.setVersion(null);
+            publish(event);
+        }
+    }
+
+    /**
+     * Avisa a todos los suscriptores, sin importar su filtro, que pudieron perderse cambios y deben resincronizar.
+     */
+    public void publishReset() {
+        AccountEventDTO reset = new AccountEventDTO();
+        reset.setType(AccountEventDTO.RESET);
+        publish(reset);
+    }
+
+    public synchronized void publish(AccountEventDTO event) {
+        event.setSequence(++lastSequence);
+        if (event.getOccurredAt() == null) {
+            event.setOccurredAt(LocalDateTime.now());
+        }
+        replay[(int) (lastSequence % replay.length)] = event;
+        // Las emisiones están serializadas por el monitor; directBestEffort nunca bloquea al publicador
+        sink.tryEmitNext(event);
+    }
+
+    /**
+     * Eventos posteriores a lastEventId (si viene) seguidos de los nuevos, filtrados por cliente o cuenta. Si
+     * lastEventId ya salió del búfer de repetición el stream empieza con un evento REINICIO.
+     */
+    public Flux<AccountEventDTO> subscribe(String customerId, String accountId, Long lastEventId) {
+        return Flux.defer(() -> {
+            Sinks.Many<AccountEventDTO> mailbox = Sinks.many().unicast()
+                    .onBackpressureBuffer(new ArrayBlockingQueue<>(subscriberBuffer));
+            List<AccountEventDTO> backlog;
+            Disposable link;
+            // Con el monitor tomado no se publica nada: entre la repetición y el feed en vivo no se pierden eventos
+            synchronized (this) {
+                backlog = lastEventId == null ? List.of() : replaySince(lastEventId, customerId, accountId);
+                link = sink.asFlux()
+                        .filter(event -> matches(event, customerId, accountId))
+                        .subscribe(event -> deliver(mailbox, event));
+            }
+            subscribers.incrementAndGet();
+            return Flux.concat(Flux.fromIterable(backlog), mailbox.asFlux())
+                    .doFinally(signal -> {
+                        link.dispose();
+                        subscribers.decrementAndGet();
+                    });
+        });
+    }
+
+    private void deliver(Sinks.Many<AccountEventDTO> mailbox, AccountEventDTO event) {
+        if (mailbox.tryEmitNext(event) != Sinks.EmitResult.FAIL_OVERFLOW) {
+            return;
+        }
+        dropped.increment();
+        if (disconnectLagging && mailbox.tryEmitComplete().isSuccess()) {
+            disconnected.increment();
+        }
+    }
+
+    private List<AccountEventDTO> replaySince(long lastEventId, String customerId, String accountId) {
+        long oldest = Math.max(1, lastSequence - replay.length + 1);
+        List<AccountEventDTO> backlog = new ArrayList<>();
+        if (lastEventId > lastSequence || lastEventId < oldest - 1) {
+            // Id de otra instancia, de antes de un reinicio o ya sobrescrito: el consumidor debe resincronizar
+            AccountEventDTO reset = new AccountEventDTO();
+            reset.setSequence(lastSequence);
+            reset.setType(AccountEventDTO.RESET);
+            reset.setOccurredAt(LocalDateTime.now());
+            backlog.add(reset);
+            return backlog;
+        }
+        for (long sequence = lastEventId + 1; sequence <= lastSequence; sequence++) {
+            AccountEventDTO event = replay[(int) (sequence % replay.length)];
+            if (matches(event, customerId, accountId)) {
+                backlog.add(event);
+            }
+        }
+        return backlog;
+    }
+
+    private static boolean matches(AccountEventDTO event, String customerId, String accountId) {
+        return AccountEventDTO.RESET.equals(event.getType())
+                || (customerId == null || customerId.equals(event.getCustomerId()))
+                && (accountId == null || accountId.equals(event.getAccountId()));
+    }
+
+    private static AccountEventDTO event(String type, Account account, Money balance, Money amount) {
+        return new AccountEventDTO(0, type, account.getId(), account.getCustomerId(), account.getNumber(),
+                balance, amount, account.getVersion(), null);
+    }
+}
@@ -0,0 +1,73 @@
+package com.bank.pe.msaccounts.limiter;
+
+import com.bank.pe.msaccounts.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite AIMD de una clase: crece de a uno mientras las respuestas son rápidas y la clase está usando al menos la
+ * mitad de su límite, y se reduce multiplicativamente ante una respuesta lenta o fallida.
+ */
+final class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private double estimatedLimit; // Protegido por el monitor de la instancia
+    private volatile int limit;
+
+    AdaptiveLimit(ConcurrencyLimitProperties.Limit config) {
+        this.minLimit = Math.max(1, config.getMinLimit());
+        this.maxLimit = Math.max(minLimit, config.getMaxLimit());
+        this.latencyThresholdNanos = config.getLatencyThreshold().toNanos();
+        this.backoffRatio = config.getBackoffRatio();
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, config.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Retorna las solicitudes en curso al entrar (incluida esta), o -1 si la clase está en su límite.
+     */
+    int tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    void release(long latencyNanos, boolean dropped, int inflightAtStart) {
+        inflight.decrementAndGet();
+        synchronized (this) {
+            if (dropped || latencyNanos > latencyThresholdNanos) {
+                estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+            } else if (inflightAtStart * 2 >= limit) {
+                estimatedLimit = Math.min(maxLimit, estimatedLimit + 1);
+            }
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    // Solicitud cancelada por el cliente: no aporta una muestra de latencia
+    void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+
+    double utilization() {
+        return (double) inflight.get() / limit;
+    }
+}
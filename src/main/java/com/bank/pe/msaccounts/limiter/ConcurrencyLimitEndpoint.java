@@ -0,0 +1,24 @@
+package com.bank.pe.msaccounts.limiter;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Límite actual, solicitudes en curso y rechazos acumulados por clase de endpoint.
+ */
+@Component
+@Endpoint(id = "concurrencylimits")
+@RequiredArgsConstructor
+public class ConcurrencyLimitEndpoint {
+
+    private final ConcurrencyLimiter limiter;
+
+    @ReadOperation
+    public Map<String, Object> limits() {
+        return limiter.snapshot();
+    }
+}
@@ -0,0 +1,79 @@
+package com.bank.pe.msaccounts.limiter;
+
+import com.bank.pe.msaccounts.config.ConcurrencyLimitProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Aplica ConcurrencyLimiter antes de llegar al controlador. Va después del filtro de métricas de Spring Boot para
+ * que los rechazos también cuenten en http.server.requests.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ms-accounts.concurrency-limits.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter implements WebFilter, Ordered {
+
+    private static final byte[] REJECTED_BODY = "{\"error\":\"Servicio saturado, reintente más tarde\",\"status\":\"503\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ConcurrencyLimiter limiter;
+    private final ConcurrencyLimitProperties properties;
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ConcurrencyLimiter.RequestClass requestClass = ConcurrencyLimiter.classify(exchange.getRequest());
+        if (requestClass == null) {
+            return chain.filter(exchange);
+        }
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire(requestClass);
+        if (permit == null) {
+            return reject(exchange.getResponse());
+        }
+        return chain.filter(exchange)
+                .doOnSuccess(done -> release(permit, exchange.getResponse(), null))
+                .doOnError(ex -> release(permit, exchange.getResponse(), ex))
+                .doOnCancel(permit::releaseWithoutSample);
+    }
+
+    private static void release(ConcurrencyLimiter.Permit permit, ServerHttpResponse response, Throwable error) {
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType())) {
+            permit.releaseWithoutSample();
+            return;
+        }
+        boolean serverError;
+        if (error != null) {
+            // Los 4xx son errores del cliente, no señal de saturación
+            serverError = !(error instanceof ResponseStatusException) || ((ResponseStatusException) error).getRawStatusCode() >= 500;
+        } else {
+            HttpStatus status = response.getStatusCode();
+            serverError = status != null && status.is5xxServerError();
+        }
+        permit.release(serverError);
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        long retryAfter = Math.max(1, (properties.getRetryAfter().toMillis() + 999) / 1000);
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(REJECTED_BODY)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.bank.pe.msaccounts.limiter;
+
+import com.bank.pe.msaccounts.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Límites adaptativos por clase de endpoint de /api/v1/accounts. Cada clase tiene su propio límite, de modo que
+ * una degradación que frena los reportes o las escrituras no consume la capacidad de las lecturas baratas, y los
+ * reportes ceden ante las transferencias cuando estas se acercan a su límite.
+ */
+@Component
+public class ConcurrencyLimiter {
+
+    public static final String REJECTED_LIMIT = "limit";
+    public static final String REJECTED_PRIORITY = "priority";
+    private static final String ACCOUNTS_PATH = "/api/v1/accounts";
+
+    /**
+     * READ: consultas puntuales. WRITE: altas, modificaciones y bajas. TRANSFER: movimientos de dinero, también masivos.
+     * REPORT: reportes, exportaciones NDJSON y altas masivas.
+     */
+    public enum RequestClass {
+        READ, WRITE, TRANSFER, REPORT
+    }
+
+    private final ConcurrencyLimitProperties properties;
+    private final Map<RequestClass, AdaptiveLimit> limits = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Map<String, Counter>> rejections = new EnumMap<>(RequestClass.class);
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        limits.put(RequestClass.READ, new AdaptiveLimit(properties.getRead()));
+        limits.put(RequestClass.WRITE, new AdaptiveLimit(properties.getWrite()));
+        limits.put(RequestClass.TRANSFER, new AdaptiveLimit(properties.getTransfer()));
+        limits.put(RequestClass.REPORT, new AdaptiveLimit(properties.getReport()));
+        limits.forEach((requestClass, limit) -> {
+            String tag = tagOf(requestClass);
+            Gauge.builder("http.server.concurrency.limit", limit, AdaptiveLimit::getLimit)
+                    .tag("class", tag).register(meterRegistry);
+            Gauge.builder("http.server.concurrency.inflight", limit, AdaptiveLimit::getInflight)
+                    .tag("class", tag).register(meterRegistry);
+            Map<String, Counter> byReason = new LinkedHashMap<>();
+            for (String reason : new String[]{REJECTED_LIMIT, REJECTED_PRIORITY}) {
+                byReason.put(reason, meterRegistry.counter("http.server.concurrency.rejected", "class", tag, "reason", reason));
+            }
+            rejections.put(requestClass, byReason);
+        });
+    }
+
+    /**
+     * Clase de la solicitud, o null si no se limita (fuera de /api/v1/accounts o el feed SSE, que es de larga vida).
+     */
+    public static RequestClass classify(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        if (!path.startsWith(ACCOUNTS_PATH)) {
+            return null;
+        }
+        String subPath = path.substring(ACCOUNTS_PATH.length());
+        HttpMethod method = request.getMethod();
+        if (subPath.equals("/events")) {
+            return null;
+        }
+        // Las transferencias masivas mueven dinero: comparten el límite de transferencias, no ceden ante ellas
+        if (subPath.equals("/transfer/bulk")) {
+            return RequestClass.TRANSFER;
+        }
+        if (subPath.startsWith("/report/") || subPath.endsWith("/bulk") || subPath.equals("/export")) {
+            return RequestClass.REPORT;
+        }
+        if (HttpMethod.GET == method || HttpMethod.HEAD == method) {
+            return RequestClass.READ;
+        }
+        if (subPath.equals("/transfer") || subPath.endsWith("/transactions")) {
+            return RequestClass.TRANSFER;
+        }
+        return RequestClass.WRITE;
+    }
+
+    /**
+     * Retorna un permiso que debe liberarse al terminar la solicitud, o null si se rechaza.
+     */
+    public Permit tryAcquire(RequestClass requestClass) {
+        if (requestClass == RequestClass.REPORT
+                && limits.get(RequestClass.TRANSFER).utilization() >= properties.getReportYieldUtilization()) {
+            rejections.get(requestClass).get(REJECTED_PRIORITY).increment();
+            return null;
+        }
+        AdaptiveLimit limit = limits.get(requestClass);
+        int inflight = limit.tryAcquire();
+        if (inflight < 0) {
+            rejections.get(requestClass).get(REJECTED_LIMIT).increment();
+            return null;
+        }
+        return new Permit(limit, inflight, System.nanoTime());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        limits.forEach((requestClass, limit) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("limit", limit.getLimit());
+            state.put("inflight", limit.getInflight());
+            rejections.get(requestClass).forEach((reason, counter) -> state.put("rejected." + reason, (long) counter.count()));
+            snapshot.put(tagOf(requestClass), state);
+        });
+        return snapshot;
+    }
+
+    private static String tagOf(RequestClass requestClass) {
+        return requestClass.name().toLowerCase(Locale.ROOT);
+    }
+
+    public static final class Permit {
+        private final AdaptiveLimit limit;
+        private final int inflightAtStart;
+        private final long startNanos;
+
+        private Permit(AdaptiveLimit limit, int inflightAtStart, long startNanos) {
+            this.limit = limit;
+            this.inflightAtStart = inflightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        public void release(boolean dropped) {
+            limit.release(System.nanoTime() - startNanos, dropped, inflightAtStart);
+        }
+
+        // Solicitudes canceladas o respuestas en streaming: su duración no refleja la latencia del servicio
+        public void releaseWithoutSample() {
+            limit.releaseWithoutSample();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.pe.msaccounts.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Log de acceso muestreado: se registran siempre los 5xx y las solicitudes lentas, y del resto solo la fracción
+ * sample-rate. Corre antes del limitador de concurrencia para que los 503 por saturación también queden registrados.
+ */
+@Component
+public class AccessLogFilter implements WebFilter, Ordered {
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("com.bank.pe.msaccounts.access");
+
+    private static final int CANCELLED = 0; // El cliente cortó la conexión antes de la respuesta
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(@Value("${ms-accounts.logging.access.sample-rate:0.01}") double sampleRate,
+                           @Value("${ms-accounts.logging.access.slow-threshold:1s}") Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 5;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!accessLogger.isInfoEnabled()) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(done -> {
+                    HttpStatus status = exchange.getResponse().getStatusCode();
+                    log(exchange, status == null ? 200 : status.value(), start);
+                })
+                // Los manejadores de excepciones de WebFlux envuelven la cadena: aquí llegan también los 4xx
+                .doOnError(ex -> log(exchange, ex instanceof ResponseStatusException
+                        ? ((ResponseStatusException) ex).getRawStatusCode()
+                        : HttpStatus.INTERNAL_SERVER_ERROR.value(), start))
+                .doOnCancel(() -> log(exchange, CANCELLED, start));
+    }
+
+    private void log(ServerWebExchange exchange, int code, long start) {
+        long elapsedNanos = System.nanoTime() - start;
+        if (code < 500 && elapsedNanos < slowThresholdNanos && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        accessLogger.info("{} {} {} {} {}", kv("method", request.getMethodValue()), kv("path", request.getPath().value()),
+                kv("status", code == CANCELLED ? "cancelled" : String.valueOf(code)),
+                kv("durationMs", elapsedNanos / 1_000_000), kv("requestId", request.getId()));
+    }
+}
@@ -0,0 +1,49 @@
+package com.bank.pe.msaccounts.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Expone lo que el pipeline de logs descarta: eventos de baja severidad descartados y desbordes de cada
+ * MeteredAsyncAppender, y excepciones repetidas suprimidas por RepeatedExceptionFilter.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (!(factory instanceof LoggerContext)) {
+            return;
+        }
+        LoggerContext context = (LoggerContext) factory;
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            Appender<ILoggingEvent> appender = appenders.next();
+            if (appender instanceof MeteredAsyncAppender) {
+                MeteredAsyncAppender async = (MeteredAsyncAppender) appender;
+                FunctionCounter.builder("logback.events.dropped", async, MeteredAsyncAppender::getDiscardedCount)
+                        .tag("appender", async.getName()).tag("reason", "low-severity").register(registry);
+                FunctionCounter.builder("logback.events.dropped", async, MeteredAsyncAppender::getOverflowedCount)
+                        .tag("appender", async.getName()).tag("reason", "queue-full").register(registry);
+                Gauge.builder("logback.queue.remaining", async, MeteredAsyncAppender::getRemainingCapacity)
+                        .tag("appender", async.getName()).register(registry);
+            }
+        }
+        context.getTurboFilterList().stream()
+                .filter(RepeatedExceptionFilter.class::isInstance)
+                .map(RepeatedExceptionFilter.class::cast)
+                .forEach(filter -> FunctionCounter.builder("logback.events.suppressed", filter,
+                        RepeatedExceptionFilter::getSuppressedCount).register(registry));
+    }
+}
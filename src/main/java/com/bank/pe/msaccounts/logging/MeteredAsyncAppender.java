@@ -0,0 +1,35 @@
+package com.bank.pe.msaccounts.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AsyncAppender que cuenta lo que descarta. Con neverBlock el hilo que registra nunca espera: por debajo de
+ * discardingThreshold se descartan TRACE, DEBUG e INFO, y con la cola llena se descarta cualquier evento.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining < getDiscardingThreshold() && isDiscardable(event)) {
+            discarded.increment();
+        } else if (remaining == 0 && isNeverBlock()) {
+            overflowed.increment();
+        }
+        super.append(event);
+    }
+
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    public long getOverflowedCount() {
+        return overflowed.sum();
+    }
+}
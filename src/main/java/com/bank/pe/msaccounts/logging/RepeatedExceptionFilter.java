@@ -0,0 +1,88 @@
+package com.bank.pe.msaccounts.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita los eventos con excepción repetidos: por logger y tipo de causa raíz (por ejemplo las reconexiones de
+ * Mongo con MongoSocketReadTimeoutException) se registran como máximo allowedRepetitions por ventana y el resto
+ * se descarta antes de construir el evento y formatear la traza. Solo aplica hasta maxLevel (WARN por defecto):
+ * los ERROR, como los débitos sin revertir o las comisiones sin asentar que se concilian desde el log, siempre pasan.
+ */
+@Getter
+@Setter
+public class RepeatedExceptionFilter extends TurboFilter {
+
+    private int allowedRepetitions = 5;
+    private long windowMillis = 60_000;
+    private int maxKeys = 1000;
+    private Level maxLevel = Level.WARN;
+    @Getter(lombok.AccessLevel.NONE)
+    @Setter(lombok.AccessLevel.NONE)
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    @Getter(lombok.AccessLevel.NONE)
+    @Setter(lombok.AccessLevel.NONE)
+    private final LongAdder suppressed = new LongAdder();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.toInt() > maxLevel.toInt() || !isStarted()) {
+            return FilterReply.NEUTRAL;
+        }
+        Throwable error = t != null ? t : lastThrowable(params);
+        if (error == null) {
+            return FilterReply.NEUTRAL;
+        }
+        if (windows.size() >= maxKeys) {
+            windows.clear();
+        }
+        String key = logger.getName() + '|' + rootCause(error).getClass().getName();
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        if (window.tryAcquire(System.currentTimeMillis(), windowMillis, allowedRepetitions)) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.increment();
+        return FilterReply.DENY;
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    private static Throwable lastThrowable(Object[] params) {
+        if (params == null || params.length == 0) {
+            return null;
+        }
+        Object last = params[params.length - 1];
+        return last instanceof Throwable ? (Throwable) last : null;
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static final class Window {
+        private long start;
+        private int count;
+
+        private synchronized boolean tryAcquire(long now, long windowMillis, int allowed) {
+            if (now - start >= windowMillis) {
+                start = now;
+                count = 0;
+            }
+            return ++count <= allowed;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.pe.msaccounts.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * Cantidad de documentos que devuelve cada comando de lectura. La latencia por comando la registra el listener de
+ * Spring Boot (mongodb.driver.commands); este complementa con el tamaño de las respuestas, etiquetado solo por comando.
+ */
+public class MongoDocumentsListener implements CommandListener {
+
+    private final MeterRegistry meterRegistry;
+
+    public MongoDocumentsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        // Solo interesa la respuesta
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        int documents = documentsReturned(event.getCommandName(), event.getResponse());
+        if (documents < 0) {
+            return;
+        }
+        DistributionSummary.builder("mongodb.driver.commands.documents")
+                .description("Documentos devueltos por comando de lectura")
+                .baseUnit("documents")
+                .tag("command", event.getCommandName())
+                .register(meterRegistry)
+                .record(documents);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        // Los fallos ya quedan en mongodb.driver.commands con status FAILED
+    }
+
+    private static int documentsReturned(String command, BsonDocument response) {
+        switch (command) {
+            case "find":
+            case "aggregate":
+                return batchSize(response, "firstBatch");
+            case "getMore":
+                return batchSize(response, "nextBatch");
+            case "findAndModify":
+                BsonValue value = response.get("value");
+                return value == null || value.isNull() ? 0 : 1;
+            case "count":
+                return response.isNumber("n") ? response.getNumber("n").intValue() : -1;
+            default:
+                return -1;
+        }
+    }
+
+    private static int batchSize(BsonDocument response, String batchField) {
+        BsonDocument cursor = response.isDocument("cursor") ? response.getDocument("cursor") : null;
+        if (cursor == null || !cursor.isArray(batchField)) {
+            return -1;
+        }
+        BsonArray batch = cursor.getArray(batchField);
+        return batch.size();
+    }
+}
@@ -0,0 +1,102 @@
+package com.bank.pe.msaccounts.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Proxy que mide cada método reactivo de un servicio desde la suscripción hasta la señal terminal.
+ * Las etiquetas son de cardinalidad acotada: método, outcome, status HTTP y clase de excepción; nunca argumentos.
+ */
+public final class TimedServiceProxy implements InvocationHandler {
+
+    private final Object target;
+    private final MeterRegistry meterRegistry;
+    private final String metricName;
+    private final String serviceName;
+
+    private TimedServiceProxy(Object target, MeterRegistry meterRegistry, String metricName) {
+        this.target = target;
+        this.meterRegistry = meterRegistry;
+        this.metricName = metricName;
+        this.serviceName = target.getClass().getSimpleName();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T wrap(Class<T> serviceInterface, T target, MeterRegistry meterRegistry, String metricName) {
+        return (T) Proxy.newProxyInstance(serviceInterface.getClassLoader(), new Class<?>[]{serviceInterface},
+                new TimedServiceProxy(target, meterRegistry, metricName));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+        if (result instanceof Mono) {
+            return Mono.defer(() -> {
+                Measurement measurement = new Measurement(method.getName());
+                return ((Mono<?>) result).doOnError(measurement::failed).doFinally(measurement::stop);
+            });
+        }
+        if (result instanceof Flux) {
+            return Flux.defer(() -> {
+                Measurement measurement = new Measurement(method.getName());
+                return ((Flux<?>) result).doOnError(measurement::failed).doFinally(measurement::stop);
+            });
+        }
+        return result;
+    }
+
+    private final class Measurement {
+        private final String method;
+        private final Timer.Sample sample = Timer.start(meterRegistry);
+        private String status = "none";
+        private String exception = "none";
+
+        private Measurement(String method) {
+            this.method = method;
+        }
+
+        private void failed(Throwable ex) {
+            status = ex instanceof ResponseStatusException
+                    ? String.valueOf(((ResponseStatusException) ex).getRawStatusCode())
+                    : "500";
+            exception = ex.getClass().getSimpleName();
+        }
+
+        private void stop(SignalType signal) {
+            sample.stop(Timer.builder(metricName)
+                    .description("Latencia de los métodos del servicio, de la suscripción a la señal terminal")
+                    .tag("service", serviceName)
+                    .tag("method", method)
+                    .tag("outcome", outcomeOf(signal))
+                    .tag("status", status)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String outcomeOf(SignalType signal) {
+        switch (signal) {
+            case ON_COMPLETE:
+                return "success";
+            case ON_ERROR:
+                return "error";
+            default:
+                return "cancelled";
+        }
+    }
+}
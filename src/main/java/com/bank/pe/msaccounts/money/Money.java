@@ -0,0 +1,167 @@
+package com.bank.pe.msaccounts.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Monto en punto fijo: unidades menores (céntimos) en un long más la moneda. La aritmética es exacta y no pasa por
+ * double. En Mongo se guarda como Decimal128 en unidades mayores y en JSON se escribe como número, igual que antes.
+ */
+@Schema(type = "number", example = "150.00")
+@JsonSerialize(using = MoneyJson.Serializer.class)
+@JsonDeserialize(using = MoneyJson.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("PEN");
+    public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * Monto exacto: rechaza valores con más decimales de los que admite la moneda.
+     */
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.setScale(DEFAULT_CURRENCY.getDefaultFractionDigits(), RoundingMode.UNNECESSARY)
+                    .unscaledValue().longValueExact());
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Monto inválido: " + amount.toPlainString(), ex);
+        }
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    /**
+     * Lectura de valores ya persistidos. Los documentos antiguos guardan el saldo como double, por lo que aquí se
+     * redondea al céntimo en lugar de rechazar.
+     */
+    public static Money fromStored(Number value) {
+        if (value == null) {
+            return null;
+        }
+        BigDecimal amount;
+        if (value instanceof Decimal128) {
+            amount = ((Decimal128) value).bigDecimalValue();
+        } else if (value instanceof Long || value instanceof Integer) {
+            amount = BigDecimal.valueOf(value.longValue());
+        } else {
+            amount = BigDecimal.valueOf(value.doubleValue());
+        }
+        return rounded(amount);
+    }
+
+    /**
+     * Monto redondeado al céntimo (HALF_EVEN), para valores que no controlamos como los de otros servicios.
+     */
+    public static Money rounded(BigDecimal amount) {
+        return ofMinor(amount.setScale(DEFAULT_CURRENCY.getDefaultFractionDigits(), RoundingMode.HALF_EVEN)
+                .unscaledValue().longValueExact());
+    }
+
+    public static long minorUnitsOf(Money amount) {
+        return amount == null ? 0 : amount.minorUnits;
+    }
+
+    public static Money orZero(Money amount) {
+        return amount == null ? ZERO : amount;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return other.minorUnits == 0 ? this : ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return other.minorUnits == 0 ? this : ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    /**
+     * División con redondeo bancario al céntimo, usada en promedios.
+     */
+    public Money divide(long divisor) {
+        return ofMinor(BigDecimal.valueOf(minorUnits)
+                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_EVEN)
+                .longValueExact());
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    public Decimal128 toDecimal128() {
+        return new Decimal128(toBigDecimal());
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("No se pueden operar montos en " + currency + " y " + other.currency);
+        }
+    }
+}
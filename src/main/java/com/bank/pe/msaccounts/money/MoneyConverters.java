@@ -0,0 +1,73 @@
+package com.bank.pe.msaccounts.money;
+
+import org.bson.types.Decimal128;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.List;
+
+/**
+ * Conversores entre Money y los tipos de Mongo. Se escribe Decimal128 para que $inc y las comparaciones del servidor
+ * sigan siendo exactas; se leen también los saldos double e enteros de documentos anteriores.
+ */
+public final class MoneyConverters {
+
+    private MoneyConverters() {
+    }
+
+    public static List<Converter<?, ?>> mongo() {
+        return List.of(new MoneyToDecimal128(), new Decimal128ToMoney(), new DoubleToMoney(),
+                new IntegerToMoney(), new LongToMoney());
+    }
+
+    @WritingConverter
+    public static class MoneyToDecimal128 implements Converter<Money, Decimal128> {
+        @Override
+        public Decimal128 convert(Money source) {
+            return source.toDecimal128();
+        }
+    }
+
+    @ReadingConverter
+    public static class Decimal128ToMoney implements Converter<Decimal128, Money> {
+        @Override
+        public Money convert(Decimal128 source) {
+            return Money.fromStored(source);
+        }
+    }
+
+    @ReadingConverter
+    public static class DoubleToMoney implements Converter<Double, Money> {
+        @Override
+        public Money convert(Double source) {
+            return Money.fromStored(source);
+        }
+    }
+
+    @ReadingConverter
+    public static class IntegerToMoney implements Converter<Integer, Money> {
+        @Override
+        public Money convert(Integer source) {
+            return Money.fromStored(source);
+        }
+    }
+
+    @ReadingConverter
+    public static class LongToMoney implements Converter<Long, Money> {
+        @Override
+        public Money convert(Long source) {
+            return Money.fromStored(source);
+        }
+    }
+
+    /**
+     * Parámetros de consulta (?amount=150.00); registrado en WebFlux, donde un monto inválido responde 400.
+     */
+    public static class StringToMoney implements Converter<String, Money> {
+        @Override
+        public Money convert(String source) {
+            return source.isBlank() ? null : Money.of(source);
+        }
+    }
+}
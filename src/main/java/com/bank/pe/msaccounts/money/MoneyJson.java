@@ -0,0 +1,69 @@
+package com.bank.pe.msaccounts.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Money se expone en JSON como un número en unidades mayores (150.00), compatible con los clientes existentes.
+ * Las solicitudes entrantes se leen estrictas (más de dos decimales es un error); las respuestas de otros servicios
+ * se leen con RoundingDeserializer.
+ */
+public final class MoneyJson {
+
+    private MoneyJson() {
+    }
+
+    public static class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.toBigDecimal());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+            JsonToken token = parser.currentToken();
+            BigDecimal amount;
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                // Se lee desde el texto del número, sin pasar por double
+                amount = parser.getDecimalValue();
+            } else if (token == JsonToken.VALUE_STRING) {
+                try {
+                    amount = new BigDecimal(parser.getText().trim());
+                } catch (NumberFormatException ex) {
+                    return (Money) ctxt.handleWeirdStringValue(Money.class, parser.getText(), "Monto inválido");
+                }
+            } else {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, parser);
+            }
+            try {
+                return toMoney(amount);
+            } catch (IllegalArgumentException ex) {
+                return (Money) ctxt.handleWeirdNumberValue(Money.class, amount, ex.getMessage());
+            }
+        }
+
+        protected Money toMoney(BigDecimal amount) {
+            return Money.of(amount);
+        }
+    }
+
+    /**
+     * Para DTOs de servicios externos: un monto con más decimales (1234.5600000001) se redondea al céntimo.
+     */
+    public static class RoundingDeserializer extends Deserializer {
+        @Override
+        protected Money toMoney(BigDecimal amount) {
+            return Money.rounded(amount);
+        }
+    }
+}
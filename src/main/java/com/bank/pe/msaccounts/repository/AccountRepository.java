@@ -2,11 +2,19 @@ package com.bank.pe.msaccounts.repository;
 
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import com.bank.pe.msaccounts.dto.AccountSummaryDTO;
 import com.bank.pe.msaccounts.entity.Account;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
-public interface AccountRepository extends ReactiveMongoRepository<Account, String> {
+public interface AccountRepository extends ReactiveMongoRepository<Account, String>, AccountRepositoryCustom {
     Flux<Account> findByCustomerId(String customerId);
+
+    // Proyección DTO: Mongo devuelve solo los campos de AccountSummaryDTO
+    Flux<AccountSummaryDTO> findSummariesByCustomerId(String customerId);
+
+    Mono<Account> findByNumber(String number);
+
 }
 
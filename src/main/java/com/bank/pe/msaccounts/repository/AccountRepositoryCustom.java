@@ -0,0 +1,100 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.money.Money;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Operaciones atómicas sobre el saldo y lecturas proyectadas que no pueden expresarse como métodos derivados.
+ */
+public interface AccountRepositoryCustom {
+
+    /**
+     * Descuenta el monto solo si el saldo es suficiente, en un único update condicional.
+     * Retorna la cuenta actualizada o vacío si la cuenta no existe o el saldo no alcanza.
+     */
+    Mono<Account> debit(String id, Money amount);
+
+    /**
+     * Abona el monto con un $inc atómico. Retorna la cuenta actualizada o vacío si no existe.
+     */
+    Mono<Account> credit(String id, Money amount);
+
+    /**
+     * Actualiza las condiciones editables de la cuenta (mantenimiento, comisión, monto mínimo de apertura, transacciones
+     * libres y firmantes) con un $set puntual y $inc de version, sin reescribir el documento. Funciona también con
+     * cuentas anteriores al control de versión. Retorna la cuenta actualizada o vacío si no existe.
+     */
+    Mono<Account> updateTerms(String id, Account terms);
+
+    /**
+     * Inserta las cuentas con un único insertMany no ordenado. Retorna las posiciones rechazadas por el servidor,
+     * separando las de clave duplicada; el resto quedó insertado. Los errores que no son de escritura (red, timeout)
+     * se propagan y dejan el resultado del lote indeterminado.
+     */
+    Mono<BulkInsertResult> insertUnordered(List<Account> accounts);
+
+    /**
+     * Aplica los deltas netos de un lote en un solo bulkWrite no ordenado. Cada update exige el saldo mínimo del
+     * delta y agrega el id del lote a pendingTransferBatches. Retorna cuántas cuentas se actualizaron.
+     */
+    Mono<Integer> applyBalanceDeltas(String batchId, List<BalanceDelta> deltas);
+
+    /**
+     * Quita el id del lote de pendingTransferBatches una vez que el lote se aplicó completo.
+     */
+    Mono<Void> commitBalanceDeltas(String batchId, List<BalanceDelta> deltas);
+
+    /**
+     * Revierte los deltas que sí quedaron aplicados (los que aún tienen el id del lote en pendingTransferBatches)
+     * cuando el lote se aplicó parcialmente; otros lotes aplicados en paralelo sobre la misma cuenta no lo afectan.
+     */
+    Mono<Void> revertBalanceDeltas(String batchId, List<BalanceDelta> deltas);
+
+    /**
+     * Reemplaza el saldo con un $set atómico. Retorna la cuenta tal como estaba antes del cambio, o vacío si no existe.
+     */
+    Mono<Account> replaceBalance(String id, Money balance);
+
+    /**
+     * Registra un depósito (monto positivo) o retiro (monto negativo) en un único update atómico: ajusta el saldo,
+     * cobra commissionFee si ya se agotaron las transacciones libres, incrementa el contador y fecha la operación.
+     * Retorna vacío si la cuenta no existe, alcanzó transactionLimit o el saldo resultante sería negativo.
+     */
+    Mono<Account> post(String id, Money signedAmount, LocalDateTime date);
+
+    /**
+     * Cuentas del cliente con solo los campos indicados (ver AccountFields); el resto queda en su valor por defecto.
+     */
+    Flux<Account> findFieldsByCustomerId(String customerId, Set<String> fields);
+
+    /**
+     * Página keyset sobre _id: la primera (afterId null) o la siguiente al último id entregado.
+     */
+    Flux<Account> findPage(String afterId, int size);
+
+    /**
+     * Página keyset sobre _id (afterId null para la primera) con solo los campos indicados.
+     */
+    Flux<Account> findPageFields(String afterId, int size, Set<String> fields);
+
+    /**
+     * Claves (_id y lastTransactionDate) de las candidatas del reporte de comisiones en [from, to) posteriores a
+     * (afterDate, afterId), saltando skip; afterDate null desde el inicio. El índice commission_report_idx cubre la
+     * consulta, así que ubicar el final de una página no lee sus documentos.
+     */
+    Flux<Account> findCommissionKeys(LocalDateTime from, LocalDateTime to, LocalDateTime afterDate, String afterId,
+                                     int skip, int size);
+
+    /**
+     * Candidatas del reporte de comisiones en [from, to) dentro del tramo (after, until] del orden
+     * (lastTransactionDate, _id). after null desde el inicio; until null hasta el final, con size como límite.
+     */
+    Flux<Account> findCommissionCandidates(LocalDateTime from, LocalDateTime to, LocalDateTime afterDate, String afterId,
+                                           LocalDateTime untilDate, String untilId, int size);
+}
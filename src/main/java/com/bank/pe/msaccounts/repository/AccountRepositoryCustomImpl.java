@@ -0,0 +1,262 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.money.Money;
+import lombok.RequiredArgsConstructor;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    // Lotes aplicados y aún no confirmados: un arreglo para que lotes concurrentes sobre la misma cuenta no se pisen
+    private static final String PENDING_BATCHES_FIELD = "pendingTransferBatches";
+    private static final int DUPLICATE_KEY = 11000;
+
+    // Expresiones de agregación compartidas por el filtro y el pipeline de actualización de post()
+    private static final Document TRANSACTION_COUNT = ifNull("$transactionCount");
+    private static final Document COMMISSION = new Document("$cond", List.of(
+            new Document("$gte", List.of(TRANSACTION_COUNT, ifNull("$freeTransactions"))),
+            ifNull("$commissionFee"),
+            0));
+    private static final Document WITHIN_LIMIT = new Document("$or", List.of(
+            new Document("$lte", List.of(ifNull("$transactionLimit"), 0)),
+            new Document("$lt", List.of(TRANSACTION_COUNT, "$transactionLimit"))));
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Account> debit(String id, Money amount) {
+        Query query = Query.query(Criteria.where("id").is(id).and("balance").gte(amount.toDecimal128()));
+        return mongoTemplate.findAndModify(query, balanceDelta(amount.negate()), RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Account> credit(String id, Money amount) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        return mongoTemplate.findAndModify(query, balanceDelta(amount), RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Account> updateTerms(String id, Account terms) {
+        Update update = new Update()
+                .set("hasMaintenanceFee", terms.isHasMaintenanceFee())
+                .set("commissionFee", toDecimal128(terms.getCommissionFee()))
+                .set("minimumOpeningBalance", toDecimal128(terms.getMinimumOpeningBalance()))
+                .set("freeTransactions", terms.getFreeTransactions())
+                .set("authorizedSigners", terms.getAuthorizedSigners())
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(id)), update, RETURN_NEW, Account.class);
+    }
+
+    private static Decimal128 toDecimal128(Money amount) {
+        return amount == null ? null : amount.toDecimal128();
+    }
+
+    @Override
+    public Mono<BulkInsertResult> insertUnordered(List<Account> accounts) {
+        List<Document> documents = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            // Ids asignados aquí para conocer el id de cada cuenta aunque parte del lote falle
+            if (account.getId() == null) {
+                account.setId(new ObjectId().toHexString());
+            }
+            if (account.getVersion() == null) {
+                account.setVersion(0L);
+            }
+            Document document = new Document();
+            mongoTemplate.getConverter().write(account, document);
+            documents.add(document);
+        }
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Account.class))
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .thenReturn(BulkInsertResult.ALL_INSERTED)
+                .onErrorResume(MongoBulkWriteException.class, ex -> {
+                    if (ex.getWriteConcernError() != null) {
+                        return Mono.error(ex);
+                    }
+                    // Sin ordered, las posiciones sin error de escritura sí se insertaron
+                    Set<Integer> duplicated = new HashSet<>();
+                    Set<Integer> failed = new HashSet<>();
+                    for (BulkWriteError error : ex.getWriteErrors()) {
+                        (error.getCode() == DUPLICATE_KEY ? duplicated : failed).add(error.getIndex());
+                    }
+                    return Mono.just(new BulkInsertResult(duplicated, failed));
+                });
+    }
+
+    @Override
+    public Mono<Integer> applyBalanceDeltas(String batchId, List<BalanceDelta> deltas) {
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(deltas.size());
+        for (BalanceDelta delta : deltas) {
+            Document filter = new Document("_id", toObjectId(delta.getAccountId()));
+            if (delta.getRequiredBalance() > 0) {
+                filter.append("balance", new Document("$gte", Money.ofMinor(delta.getRequiredBalance()).toDecimal128()));
+            }
+            updates.add(new UpdateOneModel<>(filter, new Document()
+                    .append("$inc", new Document("balance", Money.ofMinor(delta.getAmount()).toDecimal128()).append("version", 1))
+                    .append("$push", new Document(PENDING_BATCHES_FIELD, batchId))));
+        }
+        return bulkWrite(updates).map(BulkWriteResult::getMatchedCount);
+    }
+
+    @Override
+    public Mono<Void> commitBalanceDeltas(String batchId, List<BalanceDelta> deltas) {
+        List<Object> ids = new ArrayList<>(deltas.size());
+        for (BalanceDelta delta : deltas) {
+            ids.add(toObjectId(delta.getAccountId()));
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Account.class))
+                .flatMap(collection -> Mono.from(collection.updateMany(
+                        new Document("_id", new Document("$in", ids)).append(PENDING_BATCHES_FIELD, batchId),
+                        new Document("$pull", new Document(PENDING_BATCHES_FIELD, batchId)))))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> revertBalanceDeltas(String batchId, List<BalanceDelta> deltas) {
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(deltas.size());
+        for (BalanceDelta delta : deltas) {
+            updates.add(new UpdateOneModel<>(
+                    new Document("_id", toObjectId(delta.getAccountId())).append(PENDING_BATCHES_FIELD, batchId),
+                    new Document()
+                            .append("$inc", new Document("balance", Money.ofMinor(-delta.getAmount()).toDecimal128())
+                                    .append("version", 1))
+                            .append("$pull", new Document(PENDING_BATCHES_FIELD, batchId))));
+        }
+        return bulkWrite(updates).then();
+    }
+
+    private Mono<BulkWriteResult> bulkWrite(List<UpdateOneModel<Document>> updates) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Account.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false))));
+    }
+
+    // Los ids generados por Mongo se guardan como ObjectId; los documentos escritos en crudo deben respetarlo
+    private static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    @Override
+    public Mono<Account> replaceBalance(String id, Money balance) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        Update update = new Update().set("balance", balance.toDecimal128()).inc("version", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Account.class);
+    }
+
+    @Override
+    public Mono<Account> post(String id, Money signedAmount, LocalDateTime date) {
+        // Decimal128 en el pipeline: el servidor suma y compara el saldo sin errores de redondeo
+        Document newBalance = new Document("$subtract", List.of(
+                new Document("$add", List.of(ifNull("$balance"), signedAmount.toDecimal128())),
+                COMMISSION));
+
+        Query query = new BasicQuery(new Document("_id", id)
+                .append("$expr", new Document("$and", List.of(
+                        WITHIN_LIMIT,
+                        new Document("$gte", List.of(newBalance, 0))))));
+
+        // Pipeline de actualización: todos los campos se calculan sobre el documento previo, sin leerlo antes
+        Document set = new Document("balance", newBalance)
+                .append("transactionCount", new Document("$add", List.of(TRANSACTION_COUNT, 1)))
+                .append("lastTransactionDate", Date.from(date.atZone(ZoneId.systemDefault()).toInstant()))
+                .append("version", new Document("$add", List.of(ifNull("$version"), 1)));
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, Account.class);
+    }
+
+    private static Update balanceDelta(Money delta) {
+        return new Update().inc("balance", delta.toDecimal128()).inc("version", 1);
+    }
+
+    private static Document ifNull(String field) {
+        return new Document("$ifNull", List.of(field, 0));
+    }
+
+    @Override
+    public Flux<Account> findFieldsByCustomerId(String customerId, Set<String> fields) {
+        return mongoTemplate.find(project(Query.query(Criteria.where("customerId").is(customerId)), fields), Account.class);
+    }
+
+    @Override
+    public Flux<Account> findPage(String afterId, int size) {
+        return mongoTemplate.find(pageQuery(afterId, size), Account.class);
+    }
+
+    @Override
+    public Flux<Account> findPageFields(String afterId, int size, Set<String> fields) {
+        return mongoTemplate.find(project(pageQuery(afterId, size), fields), Account.class);
+    }
+
+    // El límite se compara como ObjectId: un $gt con el id en texto no coincide con los ids generados por Mongo
+    private static Query pageQuery(String afterId, int size) {
+        Query query = afterId == null ? new Query() : Query.query(Criteria.where("id").gt(toObjectId(afterId)));
+        return query.with(Sort.by("id")).limit(size);
+    }
+
+    @Override
+    public Flux<Account> findCommissionKeys(LocalDateTime from, LocalDateTime to, LocalDateTime afterDate, String afterId,
+                                            int skip, int size) {
+        Query query = commissionQuery(from, to, afterDate, afterId, null, null).skip(skip).limit(size);
+        query.fields().include("id").include("lastTransactionDate");
+        return mongoTemplate.find(query, Account.class);
+    }
+
+    @Override
+    public Flux<Account> findCommissionCandidates(LocalDateTime from, LocalDateTime to, LocalDateTime afterDate, String afterId,
+                                                  LocalDateTime untilDate, String untilId, int size) {
+        Query query = commissionQuery(from, to, afterDate, afterId, untilDate, untilId);
+        return mongoTemplate.find(untilDate == null ? query.limit(size) : query, Account.class);
+    }
+
+    private static Query commissionQuery(LocalDateTime from, LocalDateTime to, LocalDateTime afterDate, String afterId,
+                                         LocalDateTime untilDate, String untilId) {
+        List<Criteria> bounds = new ArrayList<>(2);
+        if (afterDate != null) {
+            bounds.add(new Criteria().orOperator(Criteria.where("lastTransactionDate").gt(afterDate),
+                    Criteria.where("lastTransactionDate").is(afterDate).and("id").gt(toObjectId(afterId))));
+        }
+        if (untilDate != null) {
+            bounds.add(new Criteria().orOperator(Criteria.where("lastTransactionDate").lt(untilDate),
+                    Criteria.where("lastTransactionDate").is(untilDate).and("id").lte(toObjectId(untilId))));
+        }
+        Criteria criteria = Criteria.where("hasMaintenanceFee").is(true).and("lastTransactionDate").gte(from).lt(to);
+        if (!bounds.isEmpty()) {
+            criteria.andOperator(bounds);
+        }
+        return Query.query(criteria).with(Sort.by("lastTransactionDate", "id"));
+    }
+
+    private static Query project(Query query, Set<String> fields) {
+        fields.forEach(field -> query.fields().include(field));
+        return query;
+    }
+}
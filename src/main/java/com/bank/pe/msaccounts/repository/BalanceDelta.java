@@ -0,0 +1,15 @@
+package com.bank.pe.msaccounts.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Cambio neto de saldo de una cuenta dentro de un lote de transferencias.
+ */
+@Data
+@AllArgsConstructor
+public class BalanceDelta {
+    private String accountId;
+    private long amount; // Delta neto a aplicar con $inc, en céntimos
+    private long requiredBalance; // Saldo mínimo (céntimos) para que la cuenta no quede negativa en ningún punto del lote
+}
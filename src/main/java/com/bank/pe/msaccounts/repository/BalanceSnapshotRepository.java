@@ -0,0 +1,10 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.BalanceSnapshot;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BalanceSnapshotRepository
+        extends ReactiveMongoRepository<BalanceSnapshot, String>, BalanceSnapshotRepositoryCustom {
+}
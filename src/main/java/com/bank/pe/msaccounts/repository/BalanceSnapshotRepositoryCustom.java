@@ -0,0 +1,16 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.money.Money;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface BalanceSnapshotRepositoryCustom {
+
+    /**
+     * Registra el neto de saldo de cada cuenta en el día indicado con un único bulkWrite de upserts $inc.
+     * Los $inc conmutan, así que movimientos concurrentes de una misma cuenta pueden llegar en cualquier orden.
+     */
+    Mono<Void> recordMovements(LocalDate date, Map<String, Money> netByAccount);
+}
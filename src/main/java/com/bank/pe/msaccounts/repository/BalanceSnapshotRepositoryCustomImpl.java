@@ -0,0 +1,55 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.BalanceSnapshot;
+import com.bank.pe.msaccounts.money.Money;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class BalanceSnapshotRepositoryCustomImpl implements BalanceSnapshotRepositoryCustom {
+
+    private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> recordMovements(LocalDate date, Map<String, Money> netByAccount) {
+        YearMonth month = YearMonth.from(date);
+        int dayOfMonth = date.getDayOfMonth();
+        Date now = new Date();
+
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(netByAccount.size());
+        netByAccount.forEach((accountId, net) -> {
+            if (net == null || net.getMinorUnits() == 0) {
+                return;
+            }
+            updates.add(new UpdateOneModel<>(
+                    new Document("_id", BalanceSnapshot.idOf(accountId, month)),
+                    new Document()
+                            .append("$inc", new Document("netByDay." + dayOfMonth, net.toDecimal128())
+                                    .append("weightedDelta", Money.ofMinor(
+                                            Math.multiplyExact(net.getMinorUnits(), dayOfMonth - 1L)).toDecimal128()))
+                            .append("$set", new Document("updatedAt", now))
+                            .append("$setOnInsert", new Document("accountId", accountId).append("month", month.toString())),
+                    UPSERT));
+        });
+        if (updates.isEmpty()) {
+            return Mono.empty();
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(BalanceSnapshot.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false))))
+                .then();
+    }
+}
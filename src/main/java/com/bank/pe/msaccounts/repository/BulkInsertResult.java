@@ -0,0 +1,23 @@
+package com.bank.pe.msaccounts.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Posiciones de un insertMany no ordenado que no se insertaron; las demás sí quedaron escritas.
+ */
+@Data
+@AllArgsConstructor
+public class BulkInsertResult {
+    public static final BulkInsertResult ALL_INSERTED = new BulkInsertResult(Collections.emptySet(), Collections.emptySet());
+
+    private Set<Integer> duplicated; // Rechazadas por clave duplicada (número de cuenta)
+    private Set<Integer> failed; // Rechazadas por cualquier otro error de escritura
+
+    public boolean isInserted(int position) {
+        return !duplicated.contains(position) && !failed.contains(position);
+    }
+}
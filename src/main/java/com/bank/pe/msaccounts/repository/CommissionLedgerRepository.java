@@ -0,0 +1,9 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.CommissionEntry;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CommissionLedgerRepository extends ReactiveMongoRepository<CommissionEntry, String> {
+}
@@ -0,0 +1,10 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.CommissionRollup;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CommissionRollupRepository
+        extends ReactiveMongoRepository<CommissionRollup, String>, CommissionRollupRepositoryCustom {
+}
@@ -0,0 +1,25 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.CommissionEntry;
+import com.bank.pe.msaccounts.entity.CommissionRollup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CommissionRollupRepositoryCustom {
+
+    /**
+     * Suma los asientos a los acumulados diario y mensual por tipo de cuenta y por cliente, con un único bulkWrite
+     * de upserts $inc (los asientos de una misma clave se combinan antes de escribir).
+     */
+    Mono<Void> increment(List<CommissionEntry> entries);
+
+    /**
+     * Totales por clave de la dimensión en [startDate, endDate]. Los meses completos se leen de su acumulado mensual y
+     * solo los días sueltos de los extremos de su acumulado diario, así que la agregación toca pocos documentos.
+     * Cada resultado trae key, total y count; period queda como "inicio/fin".
+     */
+    Flux<CommissionRollup> totals(LocalDate startDate, LocalDate endDate, String dimension);
+}
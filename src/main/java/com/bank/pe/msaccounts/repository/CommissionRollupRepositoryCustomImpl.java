@@ -0,0 +1,109 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.CommissionEntry;
+import com.bank.pe.msaccounts.entity.CommissionRollup;
+import com.bank.pe.msaccounts.money.Money;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class CommissionRollupRepositoryCustomImpl implements CommissionRollupRepositoryCustom {
+
+    private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> increment(List<CommissionEntry> entries) {
+        // Clave del acumulado -> [total en céntimos, cantidad]
+        Map<String, long[]> increments = new LinkedHashMap<>();
+        Map<String, Document> keys = new LinkedHashMap<>();
+        for (CommissionEntry entry : entries) {
+            LocalDate day = entry.getChargedAt().toLocalDate();
+            String[][] rollups = {
+                    {CommissionRollup.DAILY, day.toString()},
+                    {CommissionRollup.MONTHLY, YearMonth.from(day).toString()}};
+            String[][] dimensions = {
+                    {CommissionRollup.BY_ACCOUNT_TYPE, entry.getAccountType()},
+                    {CommissionRollup.BY_CUSTOMER, entry.getCustomerId()}};
+            for (String[] rollup : rollups) {
+                for (String[] dimension : dimensions) {
+                    if (dimension[1] == null) {
+                        continue;
+                    }
+                    String id = CommissionRollup.idOf(rollup[0], rollup[1], dimension[0], dimension[1]);
+                    long[] increment = increments.computeIfAbsent(id, k -> new long[2]);
+                    increment[0] = Math.addExact(increment[0], entry.getAmount().getMinorUnits());
+                    increment[1]++;
+                    keys.putIfAbsent(id, new Document("granularity", rollup[0]).append("period", rollup[1])
+                            .append("dimension", dimension[0]).append("key", dimension[1]));
+                }
+            }
+        }
+        if (increments.isEmpty()) {
+            return Mono.empty();
+        }
+
+        Date now = new Date();
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(increments.size());
+        increments.forEach((id, increment) -> updates.add(new UpdateOneModel<>(
+                new Document("_id", id),
+                new Document()
+                        .append("$inc", new Document("total", Money.ofMinor(increment[0]).toDecimal128())
+                                .append("count", increment[1]))
+                        .append("$set", new Document("updatedAt", now))
+                        .append("$setOnInsert", keys.get(id)),
+                UPSERT)));
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(CommissionRollup.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false))))
+                .then();
+    }
+
+    @Override
+    public Flux<CommissionRollup> totals(LocalDate startDate, LocalDate endDate, String dimension) {
+        List<String> months = new ArrayList<>();
+        List<String> days = new ArrayList<>();
+        LocalDate cursor = startDate;
+        while (!cursor.isAfter(endDate)) {
+            YearMonth month = YearMonth.from(cursor);
+            if (cursor.getDayOfMonth() == 1 && !month.atEndOfMonth().isAfter(endDate)) {
+                months.add(month.toString());
+                cursor = month.plusMonths(1).atDay(1);
+            } else {
+                days.add(cursor.toString());
+                cursor = cursor.plusDays(1);
+            }
+        }
+
+        Criteria periods = new Criteria().orOperator(
+                Criteria.where("granularity").is(CommissionRollup.MONTHLY).and("period").in(months),
+                Criteria.where("granularity").is(CommissionRollup.DAILY).and("period").in(days));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("dimension").is(dimension).andOperator(periods)),
+                Aggregation.group("key").sum("total").as("total").sum("count").as("count"),
+                Aggregation.sort(Sort.by("_id")));
+
+        String period = startDate + "/" + endDate;
+        return mongoTemplate.aggregate(aggregation, CommissionRollup.class, Document.class)
+                .map(group -> new CommissionRollup(null, null, period, dimension, group.getString("_id"),
+                        Money.fromStored(group.get("total", Number.class)),
+                        group.get("count", Number.class).longValue(), null));
+    }
+}
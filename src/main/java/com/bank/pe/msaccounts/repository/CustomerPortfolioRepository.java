@@ -0,0 +1,10 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CustomerPortfolioRepository
+        extends ReactiveMongoRepository<CustomerPortfolio, String>, CustomerPortfolioRepositoryCustom {
+}
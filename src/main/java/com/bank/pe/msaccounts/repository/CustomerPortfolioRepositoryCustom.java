@@ -0,0 +1,22 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import com.bank.pe.msaccounts.money.Money;
+import reactor.core.publisher.Mono;
+
+public interface CustomerPortfolioRepositoryCustom {
+
+    /**
+     * Aplica un delta atómico ($inc) sobre el conteo del tipo de cuenta y el saldo total.
+     * No crea el resumen: retorna vacío si el cliente aún no tiene uno, para no dejar un resumen parcial. Si hay una
+     * reconstrucción en curso, la invalida para que vuelva a agregar e incluya este cambio.
+     */
+    Mono<CustomerPortfolio> applyDelta(String customerId, String accountType, int countDelta, Money balanceDelta);
+
+    /**
+     * Reconstruye el resumen del cliente agregando sus cuentas directamente en Mongo. Primero deja un resumen
+     * provisional con un token y solo lo reemplaza si el token no cambió durante la agregación; si un applyDelta
+     * concurrente lo invalidó, vuelve a agregar. Agotados los intentos retorna lo agregado sin guardarlo.
+     */
+    Mono<CustomerPortfolio> rebuild(String customerId);
+}
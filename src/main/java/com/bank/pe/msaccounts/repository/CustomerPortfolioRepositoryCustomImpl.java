@@ -0,0 +1,106 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import com.bank.pe.msaccounts.money.Money;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class CustomerPortfolioRepositoryCustomImpl implements CustomerPortfolioRepositoryCustom {
+
+    private static final String REBUILD_TOKEN = "rebuildToken";
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<CustomerPortfolio> applyDelta(String customerId, String accountType, int countDelta, Money balanceDelta) {
+        Update update = new Update()
+                .inc("totalBalance", Money.orZero(balanceDelta).toDecimal128())
+                .set("updatedAt", LocalDateTime.now());
+        String typeKey = CustomerPortfolio.typeKey(accountType);
+        if (countDelta != 0 && typeKey != null) {
+            update.inc("accountsByType." + typeKey, countDelta);
+        }
+        Query summary = Query.query(Criteria.where("customerId").is(customerId).and(REBUILD_TOKEN).exists(false));
+        return mongoTemplate.findAndModify(summary, update, FindAndModifyOptions.options().returnNew(true), CustomerPortfolio.class)
+                .switchIfEmpty(Mono.defer(() -> invalidateRebuild(customerId)));
+    }
+
+    // La agregación en curso pudo no ver este cambio: al cambiar el token, su escritura final no aplica
+    private Mono<CustomerPortfolio> invalidateRebuild(String customerId) {
+        return mongoTemplate.updateFirst(rebuildingQuery(customerId),
+                        Update.update(REBUILD_TOKEN, UUID.randomUUID().toString()), CustomerPortfolio.class)
+                .then(Mono.empty());
+    }
+
+    @Override
+    public Mono<CustomerPortfolio> rebuild(String customerId) {
+        return rebuild(customerId, REBUILD_ATTEMPTS);
+    }
+
+    private Mono<CustomerPortfolio> rebuild(String customerId, int attemptsLeft) {
+        String token = UUID.randomUUID().toString();
+        Update reserve = new Update().set(REBUILD_TOKEN, token).set("updatedAt", LocalDateTime.now());
+        // Crea el resumen provisional o toma uno abandonado; si ya hay uno completo, otra reconstrucción terminó
+        return mongoTemplate.upsert(rebuildingQuery(customerId), reserve, CustomerPortfolio.class)
+                .then(aggregate(customerId))
+                .flatMap(rebuilt -> {
+                    Update commit = new Update()
+                            .set("accountsByType", rebuilt.getAccountsByType())
+                            .set("totalBalance", rebuilt.getTotalBalance().toDecimal128())
+                            .set("updatedAt", rebuilt.getUpdatedAt())
+                            .unset(REBUILD_TOKEN);
+                    Query reserved = Query.query(Criteria.where("customerId").is(customerId).and(REBUILD_TOKEN).is(token));
+                    return mongoTemplate.findAndModify(reserved, commit, FindAndModifyOptions.options().returnNew(true),
+                                    CustomerPortfolio.class)
+                            .switchIfEmpty(Mono.defer(() -> attemptsLeft > 1
+                                    ? rebuild(customerId, attemptsLeft - 1)
+                                    : Mono.just(rebuilt)));
+                })
+                .onErrorResume(DuplicateKeyException.class, ex -> mongoTemplate.findById(customerId, CustomerPortfolio.class)
+                        .filter(portfolio -> !portfolio.isRebuilding())
+                        .switchIfEmpty(Mono.defer(() -> attemptsLeft > 1
+                                ? rebuild(customerId, attemptsLeft - 1)
+                                : aggregate(customerId))));
+    }
+
+    private Mono<CustomerPortfolio> aggregate(String customerId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("customerId").is(customerId)),
+                Aggregation.group("type").count().as("count").sum("balance").as("balance"));
+
+        return mongoTemplate.aggregate(aggregation, Account.class, Document.class)
+                .collectList()
+                .map(groups -> {
+                    Map<String, Integer> accountsByType = new HashMap<>();
+                    long totalBalance = 0;
+                    for (Document group : groups) {
+                        String typeKey = CustomerPortfolio.typeKey(group.getString("_id"));
+                        if (typeKey != null) {
+                            accountsByType.merge(typeKey, group.getInteger("count"), Integer::sum);
+                        }
+                        totalBalance += Money.minorUnitsOf(Money.fromStored(group.get("balance", Number.class)));
+                    }
+                    return new CustomerPortfolio(customerId, accountsByType, Money.ofMinor(totalBalance), LocalDateTime.now());
+                });
+    }
+
+    private static Query rebuildingQuery(String customerId) {
+        return Query.query(Criteria.where("customerId").is(customerId).and(REBUILD_TOKEN).exists(true));
+    }
+}
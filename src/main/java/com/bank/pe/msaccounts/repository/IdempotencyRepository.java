@@ -0,0 +1,7 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface IdempotencyRepository extends ReactiveMongoRepository<IdempotencyRecord, String>, IdempotencyRepositoryCustom {
+}
@@ -0,0 +1,31 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.IdempotencyRecord;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRepositoryCustom {
+
+    /**
+     * Inserta la reserva; false si la clave ya existe.
+     */
+    Mono<Boolean> reserve(IdempotencyRecord reservation);
+
+    /**
+     * Toma una reserva en curso abandonada (anterior a staleBefore); true si se obtuvo.
+     */
+    Mono<Boolean> takeOver(String id, LocalDateTime staleBefore, LocalDateTime now);
+
+    /**
+     * Renueva reservedAt de una reserva en curso para que no se considere abandonada; false si ya no está en curso.
+     */
+    Mono<Boolean> refresh(String id, LocalDateTime now);
+
+    Mono<Void> complete(String id, int responseStatus, String responseBody, LocalDateTime expiresAt);
+
+    /**
+     * Libera una reserva en curso para que un reintento vuelva a ejecutar la solicitud.
+     */
+    Mono<Void> release(String id);
+}
@@ -0,0 +1,59 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.IdempotencyRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class IdempotencyRepositoryCustomImpl implements IdempotencyRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Boolean> reserve(IdempotencyRecord reservation) {
+        return mongoTemplate.insert(reservation)
+                .thenReturn(true)
+                .onErrorResume(DuplicateKeyException.class, ex -> Mono.just(false));
+    }
+
+    @Override
+    public Mono<Boolean> takeOver(String id, LocalDateTime staleBefore, LocalDateTime now) {
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("status").is(IdempotencyRecord.IN_PROGRESS)
+                .and("reservedAt").lt(staleBefore));
+        return mongoTemplate.updateFirst(query, Update.update("reservedAt", now), IdempotencyRecord.class)
+                .map(result -> result.getModifiedCount() == 1);
+    }
+
+    @Override
+    public Mono<Boolean> refresh(String id, LocalDateTime now) {
+        Query query = Query.query(Criteria.where("_id").is(id).and("status").is(IdempotencyRecord.IN_PROGRESS));
+        return mongoTemplate.updateFirst(query, Update.update("reservedAt", now), IdempotencyRecord.class)
+                .map(result -> result.getMatchedCount() == 1);
+    }
+
+    @Override
+    public Mono<Void> complete(String id, int responseStatus, String responseBody, LocalDateTime expiresAt) {
+        Update update = new Update()
+                .set("status", IdempotencyRecord.COMPLETED)
+                .set("responseStatus", responseStatus)
+                .set("responseBody", responseBody)
+                .set("expiresAt", expiresAt);
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)), update, IdempotencyRecord.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> release(String id) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)
+                        .and("status").is(IdempotencyRecord.IN_PROGRESS)), IdempotencyRecord.class)
+                .then();
+    }
+}
@@ -0,0 +1,124 @@
+package com.bank.pe.msaccounts.rules;
+
+import com.bank.pe.msaccounts.dto.CreditEligibilityDTO;
+import com.bank.pe.msaccounts.dto.CustomerDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compila AccountRuleProperties al arrancar en tablas indexadas por tipo de cliente, perfil y producto.
+ * La evaluación es una sola pasada de búsquedas en arreglos y no crea objetos: las violaciones están precalculadas.
+ */
+@Component
+public class AccountRuleEngine {
+
+    private static final int UNLIMITED = -1;
+    private static final RuleViolation UNSUPPORTED_PRODUCT =
+            new RuleViolation(HttpStatus.BAD_REQUEST, "Tipo de cuenta no soportado");
+    private static final RuleViolation CREDIT_SERVICE_ERROR =
+            new RuleViolation(HttpStatus.INTERNAL_SERVER_ERROR, "Error en el servicio ms-credits");
+
+    private final Map<String, Integer> productIndex = new HashMap<>();
+    private final String[] productNames;
+    private final int[][] maxAccounts;
+    private final RuleViolation[][] limitViolations;
+    private final RuleViolation[][] creditCardViolations;
+
+    public AccountRuleEngine(AccountRuleProperties properties) {
+        productNames = properties.getProductTypes().stream()
+                .map(CustomerPortfolio::typeKey)
+                .distinct()
+                .toArray(String[]::new);
+        for (int i = 0; i < productNames.length; i++) {
+            productIndex.put(productNames[i], i);
+        }
+
+        int customerTypes = CustomerType.values().length;
+        maxAccounts = new int[customerTypes][productNames.length];
+        limitViolations = new RuleViolation[customerTypes][productNames.length];
+        for (int[] row : maxAccounts) {
+            Arrays.fill(row, UNLIMITED);
+        }
+        for (AccountRuleProperties.Limit limit : properties.getLimits()) {
+            int customerType = limit.getCustomerType().ordinal();
+            int product = requireProduct(limit.getProductType());
+            maxAccounts[customerType][product] = limit.getMaxAccounts();
+            limitViolations[customerType][product] = new RuleViolation(HttpStatus.BAD_REQUEST,
+                    limit.getMessage() != null ? limit.getMessage() : defaultLimitMessage(limit));
+        }
+
+        creditCardViolations = new RuleViolation[customerTypes][CustomerProfile.values().length];
+        for (AccountRuleProperties.CreditCardRequirement requirement : properties.getCreditCardRequirements()) {
+            String message = requirement.getMessage() != null ? requirement.getMessage()
+                    : "Cliente " + requirement.getProfile() + " requiere tarjeta de crédito activa";
+            creditCardViolations[requirement.getCustomerType().ordinal()][requirement.getProfile().ordinal()] =
+                    new RuleViolation(HttpStatus.BAD_REQUEST, message);
+        }
+    }
+
+    /**
+     * Nombre canónico del tipo de producto según el catálogo, o null si no está configurado.
+     */
+    public String canonicalProductType(String type) {
+        Integer product = productIndexOf(type);
+        return product == null ? null : productNames[product];
+    }
+
+    /**
+     * Retorna null si la cuenta cumple las reglas, o la violación precalculada que corresponde.
+     */
+    public RuleViolation evaluate(Account account, CustomerDTO customer, CustomerPortfolio portfolio,
+                                  CreditEligibilityDTO eligibility) {
+        Integer product = productIndexOf(account.getType());
+        if (product == null) {
+            return UNSUPPORTED_PRODUCT;
+        }
+        int customerType = customer.getCustomerType().ordinal();
+
+        int max = maxAccounts[customerType][product];
+        if (max != UNLIMITED && portfolio.countOf(productNames[product]) >= max) {
+            return limitViolations[customerType][product];
+        }
+
+        RuleViolation creditCardViolation = creditCardViolations[customerType][customer.getCustomerProfile().ordinal()];
+        if (creditCardViolation != null) {
+            Boolean hasCreditCard = eligibility.getHasCreditCard();
+            if (hasCreditCard == null) {
+                return CREDIT_SERVICE_ERROR;
+            }
+            if (!hasCreditCard) {
+                return creditCardViolation;
+            }
+        }
+        return null;
+    }
+
+    private Integer productIndexOf(String type) {
+        if (type == null) {
+            return null;
+        }
+        // Los tipos ya normalizados en el borde se resuelven sin crear cadenas nuevas
+        Integer product = productIndex.get(type);
+        return product != null ? product : productIndex.get(CustomerPortfolio.typeKey(type.trim()));
+    }
+
+    private int requireProduct(String type) {
+        Integer product = productIndexOf(type);
+        if (product == null) {
+            throw new IllegalStateException("Regla de apertura con tipo de cuenta no declarado: " + type);
+        }
+        return product;
+    }
+
+    private static String defaultLimitMessage(AccountRuleProperties.Limit limit) {
+        return limit.getMaxAccounts() == 0
+                ? "Clientes " + limit.getCustomerType() + " no pueden tener cuentas " + limit.getProductType()
+                : "El cliente alcanzó el máximo de cuentas de este tipo";
+    }
+}
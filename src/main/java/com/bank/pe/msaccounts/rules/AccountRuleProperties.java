@@ -0,0 +1,59 @@
+package com.bank.pe.msaccounts.rules;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tabla declarativa de reglas de apertura. Los valores por defecto son la única definición de la política vigente;
+ * ms-accounts.account-rules solo los reemplaza. Un tipo de producto nuevo se agrega a product-types y, si aplica,
+ * a limits.
+ */
+@Data
+@ConfigurationProperties(prefix = "ms-accounts.account-rules")
+public class AccountRuleProperties {
+
+    private List<String> productTypes = new ArrayList<>(List.of("AHORRO", "CORRIENTE", "PLAZO_FIJO"));
+
+    private List<Limit> limits = new ArrayList<>(List.of(
+            new Limit(CustomerType.PERSONAL, "AHORRO", 1, "El cliente ya tiene una cuenta de este tipo"),
+            new Limit(CustomerType.PERSONAL, "CORRIENTE", 1, "El cliente ya tiene una cuenta de este tipo"),
+            new Limit(CustomerType.PERSONAL, "PLAZO_FIJO", 1, "El cliente ya tiene una cuenta de este tipo"),
+            new Limit(CustomerType.EMPRESARIAL, "AHORRO", 0,
+                    "Clientes empresariales no pueden tener cuentas de ahorro ni plazo fijo"),
+            new Limit(CustomerType.EMPRESARIAL, "PLAZO_FIJO", 0,
+                    "Clientes empresariales no pueden tener cuentas de ahorro ni plazo fijo")));
+
+    private List<CreditCardRequirement> creditCardRequirements = new ArrayList<>(List.of(
+            new CreditCardRequirement(CustomerType.PERSONAL, CustomerProfile.VIP, null),
+            new CreditCardRequirement(CustomerType.EMPRESARIAL, CustomerProfile.PYME, null)));
+
+    /**
+     * Máximo de cuentas de un tipo de producto por tipo de cliente; 0 prohíbe el producto.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private CustomerType customerType;
+        private String productType;
+        private int maxAccounts;
+        private String message;
+    }
+
+    /**
+     * Perfiles que deben tener una tarjeta de crédito activa para abrir cualquier cuenta.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CreditCardRequirement {
+        private CustomerType customerType;
+        private CustomerProfile profile;
+        private String message;
+    }
+}
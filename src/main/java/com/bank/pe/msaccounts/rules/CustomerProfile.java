@@ -0,0 +1,20 @@
+package com.bank.pe.msaccounts.rules;
+
+import java.util.Locale;
+
+public enum CustomerProfile {
+    VIP,
+    PYME,
+    NONE;
+
+    public static CustomerProfile parse(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return NONE;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bank.pe.msaccounts.rules;
+
+import java.util.Locale;
+
+public enum CustomerType {
+    PERSONAL,
+    EMPRESARIAL,
+    UNKNOWN;
+
+    public static CustomerType parse(String value) {
+        if (value == null) {
+            return UNKNOWN;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return UNKNOWN;
+        }
+    }
+}
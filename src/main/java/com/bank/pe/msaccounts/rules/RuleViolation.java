@@ -0,0 +1,20 @@
+package com.bank.pe.msaccounts.rules;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Resultado de una regla incumplida. Las instancias se precalculan al compilar la tabla de reglas.
+ */
+@Getter
+@AllArgsConstructor
+public class RuleViolation {
+    private final HttpStatus status;
+    private final String message;
+
+    public ResponseStatusException toException() {
+        return new ResponseStatusException(status, message);
+    }
+}
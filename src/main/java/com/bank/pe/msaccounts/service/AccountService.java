@@ -1,20 +1,38 @@
 package com.bank.pe.msaccounts.service;
  
+import com.bank.pe.msaccounts.dto.AccountCreationResultDTO;
+import com.bank.pe.msaccounts.dto.AccountPageDTO;
+import com.bank.pe.msaccounts.dto.AccountStreamPageDTO;
+import com.bank.pe.msaccounts.dto.AccountSummaryDTO;
+import com.bank.pe.msaccounts.dto.CommissionSummaryDTO;
+import com.bank.pe.msaccounts.dto.TransactionRequestDTO;
+import com.bank.pe.msaccounts.dto.TransactionResultDTO;
+import com.bank.pe.msaccounts.dto.TransferRequestDTO;
+import com.bank.pe.msaccounts.dto.TransferResultDTO;
 import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.money.Money;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.time.LocalDate;
 import java.util.Map;
+import java.util.Set;
 
 public interface AccountService {
-  public Flux<Account> listAccounts();
+  public Mono<AccountPageDTO<Account>> listAccounts(String cursor, int limit, Set<String> fields);
+  public Flux<Account> streamAccounts(String cursor);
   public Mono<Account> getAccount(String id);
+  public Mono<Account> getAccountByNumber(String number);
   public Mono<Void> deleteAccount(String id);
   public Mono<Account> createAccount(Account Account);
+  public Flux<AccountCreationResultDTO> createAccounts(Flux<Account> accounts);
   public Mono<Account> updateAccount(String id, Account updatedAccount);
-  public Mono<Account> updateBalanceAccount(String id, Double mount);
-  public Flux<Account> getCommissionReport(LocalDate startDate, LocalDate endDate);
-  public Mono<Map<String, Double>> getDailyBalanceReport(String customerId);
-  public Mono<Void> transferBetweenAccounts(String fromAccountId, String toAccountId, Double amount);
-  public Flux<Account> getAccountsByCustomer(String id);
+  public Mono<Account> updateBalanceAccount(String id, Money mount);
+  public Mono<TransactionResultDTO> postTransaction(String accountId, TransactionRequestDTO transaction);
+  public Mono<AccountStreamPageDTO<Account>> getCommissionReport(LocalDate startDate, LocalDate endDate, String cursor, int limit);
+  public Mono<CommissionSummaryDTO> getCommissionTotals(LocalDate startDate, LocalDate endDate, String groupBy);
+  public Mono<Map<String, Money>> getDailyBalanceReport(String customerId);
+  public Mono<Void> transferBetweenAccounts(String fromAccountId, String toAccountId, Money amount);
+  public Flux<TransferResultDTO> transferBatch(Flux<TransferRequestDTO> transfers);
+  public Flux<Account> getAccountsByCustomer(String id, Set<String> fields);
+  public Flux<AccountSummaryDTO> getAccountSummariesByCustomer(String id);
 }
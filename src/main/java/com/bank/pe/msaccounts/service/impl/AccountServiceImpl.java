@@ -3,41 +3,153 @@ package com.bank.pe.msaccounts.service.impl;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
-import com.bank.pe.msaccounts.client.CreditClient;
+import com.bank.pe.msaccounts.cache.AccountCache;
+import com.bank.pe.msaccounts.client.CreditEligibilityClient;
 import com.bank.pe.msaccounts.client.CustomerClient;
+import com.bank.pe.msaccounts.dto.AccountCreationResultDTO;
+import com.bank.pe.msaccounts.dto.AccountEventDTO;
+import com.bank.pe.msaccounts.dto.AccountPageDTO;
+import com.bank.pe.msaccounts.dto.AccountStreamPageDTO;
+import com.bank.pe.msaccounts.dto.AccountSummaryDTO;
+import com.bank.pe.msaccounts.dto.CommissionSummaryDTO;
+import com.bank.pe.msaccounts.dto.CommissionTotalDTO;
+import com.bank.pe.msaccounts.dto.CreditEligibilityDTO;
 import com.bank.pe.msaccounts.dto.CustomerDTO;
+import com.bank.pe.msaccounts.dto.TransactionRequestDTO;
+import com.bank.pe.msaccounts.dto.TransactionResultDTO;
+import com.bank.pe.msaccounts.dto.TransferRequestDTO;
+import com.bank.pe.msaccounts.dto.TransferResultDTO;
 import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.entity.BalanceSnapshot;
+import com.bank.pe.msaccounts.entity.CommissionEntry;
+import com.bank.pe.msaccounts.entity.CommissionRollup;
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import com.bank.pe.msaccounts.events.AccountEventPublisher;
+import com.bank.pe.msaccounts.money.Money;
 import com.bank.pe.msaccounts.repository.AccountRepository;
+import com.bank.pe.msaccounts.repository.BalanceDelta;
+import com.bank.pe.msaccounts.repository.BalanceSnapshotRepository;
+import com.bank.pe.msaccounts.repository.CommissionLedgerRepository;
+import com.bank.pe.msaccounts.repository.CommissionRollupRepository;
+import com.bank.pe.msaccounts.repository.CustomerPortfolioRepository;
+import com.bank.pe.msaccounts.rules.AccountRuleEngine;
+import com.bank.pe.msaccounts.rules.RuleViolation;
 import com.bank.pe.msaccounts.service.AccountService;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AccountServiceImpl implements AccountService {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountServiceImpl.class);
+    private static final int COMPENSATION_RETRIES = 3;
+    private static final int MAX_REPORT_PAGE_SIZE = 5000;
+    private static final int BULK_TRANSFER_BATCH_SIZE = 500;
+    private static final int BULK_CREATE_BATCH_SIZE = 500;
+    private static final int CUSTOMER_LOOKUP_CONCURRENCY = 32;
+    private static final String DEPOSIT = "DEPOSITO";
+    private static final String WITHDRAWAL = "RETIRO";
+    private static final int MAX_LIST_PAGE_SIZE = 1000;
+    private static final int STREAM_PAGE_SIZE = 500;
+    private static final String REPORT_CURSOR_SEPARATOR = "|";
     private final AccountRepository accountRepository;
+    private final CustomerPortfolioRepository portfolioRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final CommissionLedgerRepository commissionLedgerRepository;
+    private final CommissionRollupRepository commissionRollupRepository;
     private final CustomerClient customerClient;
-    private final CreditClient creditClient;
+    private final CreditEligibilityClient creditEligibilityClient;
+    private final AccountCache accountCache;
+    private final BalanceWriteCombiner balanceWriteCombiner;
+    private final MeterRegistry meterRegistry;
+    private final AccountRuleEngine accountRuleEngine;
+    private final AccountEventPublisher accountEvents;
+
+    /**
+     * Con fields solo se leen de Mongo esos campos (más el id, que es el cursor); sin fields, la cuenta completa.
+     */
+    @Override
+    public Mono<AccountPageDTO<Account>> listAccounts(String cursor, int limit, Set<String> fields) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIST_PAGE_SIZE));
+        // Se pide un elemento extra solo para saber si existe una página siguiente
+        return Mono.defer(() -> fields == null
+                        ? fetchPage(decodeCursor(cursor), pageSize + 1)
+                        : accountRepository.findPageFields(decodeCursor(cursor), pageSize + 1, fields).collectList())
+                .map(accounts -> {
+                    if (accounts.size() <= pageSize) {
+                        return new AccountPageDTO<>(accounts, null);
+                    }
+                    List<Account> page = accounts.subList(0, pageSize);
+                    return new AccountPageDTO<>(page, encodeCursor(page.get(pageSize - 1).getId()));
+                });
+    }
 
     @Override
-    public Flux<Account> listAccounts() {
-        return accountRepository.findAll();
+    public Flux<Account> streamAccounts(String cursor) {
+        // Cada página es una consulta corta sobre _id; la siguiente se lanza solo cuando el cliente la demanda
+        return Mono.defer(() -> fetchPage(decodeCursor(cursor), STREAM_PAGE_SIZE))
+                .expand(page -> page.size() < STREAM_PAGE_SIZE
+                        ? Mono.empty()
+                        : fetchPage(page.get(page.size() - 1).getId(), STREAM_PAGE_SIZE))
+                .concatMapIterable(page -> page);
+    }
+
+    private Mono<List<Account>> fetchPage(String afterId, int size) {
+        return accountRepository.findPage(afterId, size).collectList();
+    }
+
+    private static String encodeCursor(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de paginación inválido");
+        }
     }
 
     @Override
     public Mono<Account> getAccount(String id) {
-        return accountRepository.findById(id)
+        return accountCache.getById(id, accountRepository::findById)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "Cuenta bancaria no encontrada")));
+    }
+
+    @Override
+    public Mono<Account> getAccountByNumber(String number) {
+        return accountCache.getByNumber(number, accountRepository::findByNumber)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Cuenta bancaria no encontrada")));
     }
@@ -47,169 +159,785 @@ public class AccountServiceImpl implements AccountService {
         return accountRepository.findById(id)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Cuenta bancaria no encontrada")))
-                .flatMap(accountRepository::delete);
+                .flatMap(account -> accountRepository.delete(account)
+                        .doOnSuccess(deleted -> {
+                            accountCache.evict(account);
+                            accountEvents.accountChanged(AccountEventDTO.DELETED, account);
+                        })
+                        .then(trackPortfolio(account.getCustomerId(), account.getType(), -1, Money.orZero(account.getBalance()).negate())));
     }
 
+    /**
+     * Las consultas de admisión son independientes: se lanzan a la vez y las reglas se evalúan al completarse.
+     * Si una verificación falla, zip cancela las consultas que siguen en curso.
+     */
     @Override
     public Mono<Account> createAccount(Account account) {
-        return customerClient.getCustomerById(account.getCustomerId())
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente no encontrado")))
-                .flatMap(customer -> creditClient.hasOverdueDebt(account.getCustomerId())
-                        .flatMap(hasDebt -> {
-                            if (hasDebt) {
-                                return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN,
-                                        "Cliente con deuda de crédito vencido"));
-                            }
-                            return accountRepository.findByCustomerId(account.getCustomerId()).collectList()
-                                    .flatMap(existingAccounts -> applyAccountRules(account, customer, existingAccounts))
-                                    .flatMap(accountRepository::save);
-                        }));
+        String customerId = account.getCustomerId();
+
+        Mono<CustomerDTO> customerStage = timedStage("customer", customerClient.getCustomerById(customerId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente no encontrado"))));
+        // Deuda vencida y tarjeta de crédito se resuelven juntas en la consulta por lotes a ms-credits
+        Mono<CreditEligibilityDTO> eligibilityStage = timedStage("credit-eligibility",
+                creditEligibilityClient.getEligibility(customerId)
+                        .flatMap(eligibility -> eligibility.isHasOverdueDebt()
+                                ? Mono.<CreditEligibilityDTO>error(new ResponseStatusException(HttpStatus.FORBIDDEN,
+                                        "Cliente con deuda de crédito vencido"))
+                                : Mono.just(eligibility)));
+        Mono<CustomerPortfolio> portfolioStage = timedStage("portfolio", portfolioOf(customerId));
+
+        return timedStage("admission", Mono.zip(customerStage, eligibilityStage, portfolioStage)
+                        .flatMap(stages -> applyAccountRules(account, stages.getT1(), stages.getT3(), stages.getT2())))
+                .flatMap(accountRepository::save)
+                .doOnNext(saved -> accountEvents.accountChanged(AccountEventDTO.CREATED, saved))
+                .flatMap(saved -> Mono.when(
+                                trackPortfolio(saved.getCustomerId(), saved.getType(), 1, saved.getBalance()),
+                                trackSnapshot(saved.getId(), saved.getBalance()))
+                        .thenReturn(saved));
+    }
 
+    /**
+     * Alta masiva: las consultas de cliente, elegibilidad crediticia y resumen se hacen una sola vez por cliente
+     * distinto durante toda la importación, y las reglas se evalúan contra lo existente más lo ya aceptado del
+     * archivo. Las cuentas aceptadas de cada lote se insertan con un único insertMany.
+     */
+    @Override
+    public Flux<AccountCreationResultDTO> createAccounts(Flux<Account> accounts) {
+        return Flux.defer(() -> {
+            Map<String, CustomerContext> customers = new ConcurrentHashMap<>();
+            return accounts.buffer(BULK_CREATE_BATCH_SIZE)
+                    .concatMap(batch -> createAccountBatch(batch, customers), 1);
+        });
     }
 
+    private Flux<AccountCreationResultDTO> createAccountBatch(List<Account> batch, Map<String, CustomerContext> customers) {
+        Set<String> pendingCustomers = new HashSet<>();
+        for (Account account : batch) {
+            if (account.getCustomerId() != null && !customers.containsKey(account.getCustomerId())) {
+                pendingCustomers.add(account.getCustomerId());
+            }
+        }
+
+        return Flux.fromIterable(pendingCustomers)
+                .flatMap(customerId -> loadCustomerContext(customerId)
+                        .doOnNext(context -> customers.put(customerId, context)), CUSTOMER_LOOKUP_CONCURRENCY)
+                .thenMany(Flux.defer(() -> {
+                    AccountCreationResultDTO[] results = new AccountCreationResultDTO[batch.size()];
+                    List<Account> accepted = new ArrayList<>();
+                    List<Integer> acceptedPositions = new ArrayList<>();
+
+                    for (int i = 0; i < batch.size(); i++) {
+                        Account account = batch.get(i);
+                        CustomerContext context = account.getCustomerId() == null ? null : customers.get(account.getCustomerId());
+                        ResponseStatusException rejection = context == null
+                                ? new ResponseStatusException(HttpStatus.BAD_REQUEST, "El cliente es obligatorio")
+                                : context.rejection;
+                        if (rejection == null) {
+                            rejection = checkAccountRules(account, context.customer, context.portfolio, context.eligibility);
+                        }
+                        if (rejection != null) {
+                            results[i] = creationResult(account, rejection);
+                            continue;
+                        }
+                        // Lo aceptado en el archivo cuenta para las reglas de las filas siguientes
+                        context.portfolio.getAccountsByType().merge(CustomerPortfolio.typeKey(account.getType()), 1, Integer::sum);
+                        accepted.add(account);
+                        acceptedPositions.add(i);
+                    }
+
+                    if (accepted.isEmpty()) {
+                        return Flux.fromArray(results);
+                    }
+                    return accountRepository.insertUnordered(accepted)
+                            .flatMapMany(outcome -> {
+                                if (!outcome.getFailed().isEmpty()) {
+                                    logger.error("No se insertaron {} de {} cuentas del lote", outcome.getFailed().size(),
+                                            accepted.size());
+                                }
+                                List<Account> inserted = new ArrayList<>(accepted.size());
+                                for (int j = 0; j < accepted.size(); j++) {
+                                    Account account = accepted.get(j);
+                                    if (outcome.isInserted(j)) {
+                                        inserted.add(account);
+                                        accountEvents.accountChanged(AccountEventDTO.CREATED, account);
+                                        results[acceptedPositions.get(j)] = creationResult(account, null);
+                                        continue;
+                                    }
+                                    untrackAccepted(customers, account);
+                                    results[acceptedPositions.get(j)] = creationResult(account, outcome.getDuplicated().contains(j)
+                                            ? new ResponseStatusException(HttpStatus.CONFLICT, "Ya existe una cuenta con este número")
+                                            : new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                                                    "Error al registrar la cuenta"));
+                                }
+                                return trackInsertedAccounts(inserted).thenMany(Flux.fromArray(results));
+                            })
+                            .onErrorResume(ex -> {
+                                // Resultado indeterminado (red, write concern): se informa el lote como fallido
+                                logger.error("Falló la inserción de un lote de {} cuentas", accepted.size(), ex);
+                                ResponseStatusException failure = new ResponseStatusException(
+                                        HttpStatus.INTERNAL_SERVER_ERROR, "Error al registrar la cuenta");
+                                accepted.forEach(account -> untrackAccepted(customers, account));
+                                acceptedPositions.forEach(i -> results[i] = creationResult(batch.get(i), failure));
+                                return Flux.fromArray(results);
+                            });
+                }));
+    }
+
+    // Una fila aceptada que no llegó a insertarse deja de contar para las reglas de las filas siguientes
+    private static void untrackAccepted(Map<String, CustomerContext> customers, Account account) {
+        customers.get(account.getCustomerId()).portfolio.getAccountsByType()
+                .merge(CustomerPortfolio.typeKey(account.getType()), -1, Integer::sum);
+    }
+
+    private Mono<CustomerContext> loadCustomerContext(String customerId) {
+        return Mono.zip(
+                        customerClient.getCustomerById(customerId)
+                                .switchIfEmpty(Mono.error(new ResponseStatusException(
+                                        HttpStatus.NOT_FOUND, "Cliente no encontrado"))),
+                        creditEligibilityClient.getEligibility(customerId),
+                        portfolioOf(customerId))
+                .map(stages -> stages.getT2().isHasOverdueDebt()
+                        ? new CustomerContext(new ResponseStatusException(
+                                HttpStatus.FORBIDDEN, "Cliente con deuda de crédito vencido"))
+                        : new CustomerContext(stages.getT1(), stages.getT2(), stages.getT3()))
+                .onErrorResume(ResponseStatusException.class, ex -> Mono.just(new CustomerContext(ex)))
+                .onErrorResume(ex -> Mono.just(new CustomerContext(new ResponseStatusException(
+                        HttpStatus.INTERNAL_SERVER_ERROR, "Error al validar el cliente"))));
+    }
+
+    // Un delta de resumen por cliente y tipo, no por cuenta
+    private Mono<Void> trackInsertedAccounts(List<Account> inserted) {
+        Map<String, Map<String, long[]>> totals = new LinkedHashMap<>();
+        Map<String, Money> openingBalances = new HashMap<>();
+        for (Account account : inserted) {
+            openingBalances.put(account.getId(), account.getBalance());
+            long[] total = totals.computeIfAbsent(account.getCustomerId(), id -> new HashMap<>())
+                    .computeIfAbsent(CustomerPortfolio.typeKey(account.getType()), type -> new long[2]);
+            total[0]++;
+            total[1] += Money.minorUnitsOf(account.getBalance());
+        }
+        List<Mono<Void>> updates = new ArrayList<>();
+        totals.forEach((customerId, byType) -> byType.forEach((type, total) ->
+                updates.add(trackPortfolio(customerId, type, (int) total[0], Money.ofMinor(total[1])))));
+        updates.add(trackSnapshots(openingBalances));
+        return Mono.when(updates);
+    }
+
+    private static AccountCreationResultDTO creationResult(Account account, ResponseStatusException rejection) {
+        if (rejection == null) {
+            return new AccountCreationResultDTO(account.getNumber(), account.getCustomerId(), account.getId(),
+                    AccountCreationResultDTO.CREATED, HttpStatus.CREATED.value(), "Cuenta creada exitosamente");
+        }
+        return new AccountCreationResultDTO(account.getNumber(), account.getCustomerId(), null,
+                AccountCreationResultDTO.REJECTED, rejection.getRawStatusCode(), rejection.getReason());
+    }
+
+    /**
+     * Datos de admisión de un cliente resueltos una sola vez por importación.
+     */
+    private static final class CustomerContext {
+        private final CustomerDTO customer;
+        private final CreditEligibilityDTO eligibility;
+        private final CustomerPortfolio portfolio;
+        private final ResponseStatusException rejection;
+
+        private CustomerContext(CustomerDTO customer, CreditEligibilityDTO eligibility, CustomerPortfolio portfolio) {
+            this.customer = customer;
+            this.eligibility = eligibility;
+            this.portfolio = portfolio;
+            this.rejection = null;
+        }
+
+        private CustomerContext(ResponseStatusException rejection) {
+            this.customer = null;
+            this.eligibility = null;
+            this.portfolio = null;
+            this.rejection = rejection;
+        }
+    }
+
+    private <T> Mono<T> timedStage(String stage, Mono<T> source) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return source.doFinally(signal -> {
+                long nanos = sample.stop(Timer.builder("accounts.admission.stage")
+                        .description("Latencia de cada etapa de admisión en createAccount")
+                        .tag("stage", stage)
+                        .tag("outcome", outcomeOf(signal))
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+                logger.debug("Etapa de admisión {} terminó con {} en {} ms", stage, signal, nanos / 1_000_000);
+            });
+        });
+    }
+
+    private static String outcomeOf(SignalType signal) {
+        switch (signal) {
+            case ON_COMPLETE:
+                return "success";
+            case ON_ERROR:
+                return "error";
+            default:
+                return "cancelled";
+        }
+    }
+
+    /**
+     * Las actualizaciones concurrentes sobre la misma cuenta se combinan en una sola escritura por ventana; gana la
+     * última y las que pedían otro saldo terminan con 409.
+     */
     @Override
-    public Mono<Account> updateBalanceAccount(String id, Double mount) {
-        return accountRepository.findById(id)
+    public Mono<Account> updateBalanceAccount(String id, Money mount) {
+        return balanceWriteCombiner.submit(id, mount, this::writeBalance);
+    }
+
+    private Mono<Account> writeBalance(String id, Money balance) {
+        return accountRepository.replaceBalance(id, balance)
+                .flatMap(previous -> {
+                    accountCache.evict(previous);
+                    Money delta = balance.minus(Money.orZero(previous.getBalance()));
+                    previous.setBalance(balance);
+                    previous.setVersion(previous.getVersion() == null ? 1L : previous.getVersion() + 1);
+                    accountEvents.balanceChanged(previous, delta);
+                    return Mono.when(
+                                    trackPortfolio(previous.getCustomerId(), previous.getType(), 0, delta),
+                                    trackSnapshot(id, delta))
+                            .thenReturn(previous);
+                });
+    }
+
+    /**
+     * Depósito o retiro en un único update atómico sobre la cuenta; solo se vuelve a leer para explicar un rechazo.
+     */
+    @Override
+    public Mono<TransactionResultDTO> postTransaction(String accountId, TransactionRequestDTO transaction) {
+        if (transaction.getAmount() == null || !transaction.getAmount().isPositive()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "El monto debe ser mayor a cero"));
+        }
+        boolean isDeposit = DEPOSIT.equalsIgnoreCase(transaction.getType());
+        if (!isDeposit && !WITHDRAWAL.equalsIgnoreCase(transaction.getType())) {
+            return Mono.error(new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "Tipo de transacción inválido, use DEPOSITO o RETIRO"));
+        }
+
+        Money signedAmount = isDeposit ? transaction.getAmount() : transaction.getAmount().negate();
+        LocalDateTime date = LocalDateTime.now();
+        return accountRepository.post(accountId, signedAmount, date)
+                .switchIfEmpty(Mono.defer(() -> rejectTransaction(accountId)))
+                .doOnNext(accountCache::evict)
+                .flatMap(posted -> {
+                    Money commission = commissionCharged(posted);
+                    accountEvents.balanceChanged(posted, signedAmount.minus(commission));
+                    TransactionResultDTO result = new TransactionResultDTO(accountId,
+                            isDeposit ? DEPOSIT : WITHDRAWAL, transaction.getAmount(), commission,
+                            posted.getBalance(), posted.getTransactionCount(), date);
+                    Money net = signedAmount.minus(commission);
+                    return Mono.when(
+                                    trackPortfolio(posted.getCustomerId(), posted.getType(), 0, net),
+                                    trackSnapshot(accountId, net),
+                                    commission.isPositive()
+                                            ? recordCommissions(List.of(CommissionEntry.of(
+                                                    posted, CommissionEntry.EXCESS_TRANSACTION, commission, date)))
+                                            : Mono.empty())
+                            .thenReturn(result);
+                });
+    }
+
+    private Mono<Account> rejectTransaction(String accountId) {
+        return accountRepository.findById(accountId)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Cuenta bancaria no encontrada")))
-                .flatMap(existingAccount -> {
-                    existingAccount.setBalance(mount);
-                    return accountRepository.save(existingAccount);
+                .flatMap(account -> {
+                    int count = account.getTransactionCount() == null ? 0 : account.getTransactionCount();
+                    if (account.getTransactionLimit() > 0 && count >= account.getTransactionLimit()) {
+                        return Mono.error(new ResponseStatusException(
+                                HttpStatus.BAD_REQUEST, "Se alcanzó el límite de transacciones de la cuenta"));
+                    }
+                    return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Saldo insuficiente"));
                 });
     }
 
+    // El contador ya incluye la transacción recién registrada
+    private static Money commissionCharged(Account posted) {
+        int previousCount = posted.getTransactionCount() - 1;
+        int freeTransactions = posted.getFreeTransactions() == null ? 0 : posted.getFreeTransactions();
+        return previousCount >= freeTransactions ? Money.orZero(posted.getCommissionFee()) : Money.ZERO;
+    }
+
     @Override
     public Mono<Account> updateAccount(String id, Account updatedAccount) {
-        return accountRepository.findById(id)
+        // $set puntual en lugar de save(): no pisa un saldo movido en paralelo ni depende de que la cuenta tenga version
+        return accountRepository.updateTerms(id, updatedAccount)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Cuenta bancaria no encontrada")))
-                .flatMap(existingAccount -> {
-                    existingAccount.setHasMaintenanceFee(updatedAccount.isHasMaintenanceFee());
-                    existingAccount.setCommissionFee(updatedAccount.getCommissionFee());
-                    existingAccount.setMinimumOpeningBalance(updatedAccount.getMinimumOpeningBalance());
-                    existingAccount.setFreeTransactions(updatedAccount.getFreeTransactions());
-                    existingAccount.setAuthorizedSigners(updatedAccount.getAuthorizedSigners());
-                    return accountRepository.save(existingAccount);
+                .doOnNext(saved -> {
+                    accountCache.evict(saved);
+                    accountEvents.accountChanged(AccountEventDTO.UPDATED, saved);
                 });
     }
 
-    private Mono<Account> applyAccountRules(Account account, CustomerDTO customer, List<Account> existingAccounts) {
-        boolean isPersonal = "PERSONAL".equalsIgnoreCase(customer.getType());
-        boolean isBusiness = "EMPRESARIAL".equalsIgnoreCase(customer.getType());
+    private Mono<Account> applyAccountRules(Account account, CustomerDTO customer, CustomerPortfolio portfolio,
+                                            CreditEligibilityDTO eligibility) {
+        ResponseStatusException rejection = checkAccountRules(account, customer, portfolio, eligibility);
+        return rejection == null ? Mono.just(account) : Mono.error(rejection);
+    }
 
+    /**
+     * Reglas de apertura evaluadas de forma síncrona para poder aplicarlas también sobre un lote.
+     * Retorna null si la cuenta es válida, o el error que debe devolverse.
+     */
+    private ResponseStatusException checkAccountRules(Account account, CustomerDTO customer,
+                                                      CustomerPortfolio portfolio,
+                                                      CreditEligibilityDTO eligibility) {
+        RuleViolation violation = accountRuleEngine.evaluate(account, customer, portfolio, eligibility);
+        return violation == null ? null : violation.toException();
+    }
 
-        // Reglas para clientes personales
-        if (isPersonal) {
-            boolean hasSavings = existingAccounts.stream().anyMatch(acc -> "AHORRO".equalsIgnoreCase(acc.getType()));
-            boolean hasCurrent = existingAccounts.stream().anyMatch(acc -> "CORRIENTE".equalsIgnoreCase(acc.getType()));
-            boolean hasFixed = existingAccounts.stream().anyMatch(acc -> "PLAZO_FIJO".equalsIgnoreCase(acc.getType()));
+    /**
+     * Transferencia en dos round trips: un débito condicional (saldo >= monto) y un abono atómico.
+     * Si el abono no se aplicó (cuenta destino inexistente o rechazo) se revierte el débito; si su resultado es incierto
+     * (timeout, conexión caída) no se compensa, porque el abono pudo haberse aplicado: la transferencia queda
+     * pendiente de conciliación. Una vez suscrita, la
+     * transferencia corre desacoplada del suscriptor: si el cliente se desconecta entre el débito y el abono, el abono
+     * (o su compensación) se completa igual.
+     */
+    @Override
+    public Mono<Void> transferBetweenAccounts(String fromAccountId, String toAccountId, Money amount) {
+        if (amount == null || !amount.isPositive()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "El monto debe ser mayor a cero"));
+        }
+        if (fromAccountId.equals(toAccountId)) {
+            return Mono.error(new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "La cuenta de origen y destino deben ser distintas"));
+        }
 
+        return Mono.defer(() -> detached(transfer(fromAccountId, toAccountId, amount)));
+    }
 
-            if (("AHORRO".equalsIgnoreCase(account.getType()) && hasSavings) ||
-                    ("CORRIENTE".equalsIgnoreCase(account.getType()) && hasCurrent) ||
-                    ("PLAZO_FIJO".equalsIgnoreCase(account.getType()) && hasFixed)) {
-                return Mono.error(new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST, "El cliente ya tiene una cuenta de este tipo"));
+    private Mono<Void> transfer(String fromAccountId, String toAccountId, Money amount) {
+        return accountRepository.debit(fromAccountId, amount)
+                .switchIfEmpty(Mono.defer(() -> rejectDebit(fromAccountId)))
+                .doOnNext(debited -> {
+                    accountCache.evict(debited);
+                    accountEvents.balanceChanged(debited, amount.negate());
+                })
+                .flatMap(debited -> accountRepository.credit(toAccountId, amount)
+                        .doOnNext(credited -> {
+                            accountCache.evict(credited);
+                            accountEvents.balanceChanged(credited, amount);
+                        })
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(
+                                HttpStatus.NOT_FOUND, "Cuenta destino no encontrada")))
+                        .onErrorResume(ex -> creditNotApplied(ex)
+                                ? compensateDebit(fromAccountId, amount).then(Mono.error(ex))
+                                : leavePending(fromAccountId, toAccountId, amount, ex))
+                        .flatMap(credited -> Mono.when(
+                                trackSnapshots(Map.of(fromAccountId, amount.negate(), toAccountId, amount)),
+                                Objects.equals(debited.getCustomerId(), credited.getCustomerId())
+                                        ? Mono.<Void>empty()
+                                        : Mono.when(
+                                                trackPortfolio(debited.getCustomerId(), debited.getType(), 0, amount.negate()),
+                                                trackPortfolio(credited.getCustomerId(), credited.getType(), 0, amount)))))
+                .then();
+    }
+
+    /**
+     * Transferencias masivas: cada lote se valida en memoria con las mismas reglas de transferBetweenAccounts sobre
+     * una lectura de las cuentas involucradas, y se aplica como un bulkWrite de deltas netos por cuenta. Si otro
+     * proceso movió alguna cuenta entre la lectura y la escritura, o si la escritura falla, el lote se revierte y se
+     * aplica una a una.
+     */
+    @Override
+    public Flux<TransferResultDTO> transferBatch(Flux<TransferRequestDTO> transfers) {
+        // buffer(n) respeta la contrapresión: el siguiente lote se lee cuando el anterior terminó de aplicarse
+        return transfers.buffer(BULK_TRANSFER_BATCH_SIZE)
+                .concatMap(this::applyTransferBatch, 1);
+    }
+
+    private Flux<TransferResultDTO> applyTransferBatch(List<TransferRequestDTO> batch) {
+        Set<String> accountIds = new HashSet<>();
+        for (TransferRequestDTO transfer : batch) {
+            if (transfer.getFromAccountId() != null && transfer.getToAccountId() != null) {
+                accountIds.add(transfer.getFromAccountId());
+                accountIds.add(transfer.getToAccountId());
             }
+        }
 
+        return accountRepository.findAllById(accountIds)
+                .collectMap(Account::getId)
+                .flatMapMany(accounts -> {
+                    TransferPlan plan = planTransfers(batch, accounts);
+                    TransferResultDTO[] results = plan.results;
+                    List<BalanceDelta> deltas = plan.deltas;
+                    if (deltas.isEmpty()) {
+                        return Flux.fromArray(results);
+                    }
 
-            if ("VIP".equalsIgnoreCase(customer.getProfile())) {
-                return hasCreditCard(customer.getId())
-                        .flatMap(hasCard -> {
-                            if (!hasCard) {
-                                return Mono.error(new ResponseStatusException(
-                                        HttpStatus.BAD_REQUEST, "Cliente VIP requiere tarjeta de crédito activa"));
+                    String batchId = UUID.randomUUID().toString();
+                    return accountRepository.applyBalanceDeltas(batchId, deltas)
+                            .flatMap(updated -> {
+                                if (updated == deltas.size()) {
+                                    return accountRepository.commitBalanceDeltas(batchId, deltas).thenReturn(true);
+                                }
+                                logger.warn("Lote de transferencias {} aplicado parcialmente ({}/{}), se reintenta una a una",
+                                        batchId, updated, deltas.size());
+                                return Mono.just(false);
+                            })
+                            .onErrorResume(ex -> {
+                                // Un bulkWrite o una confirmación fallida puede haber dejado el lote a medias
+                                logger.warn("Falló el lote de transferencias {}, se reintenta una a una", batchId, ex);
+                                return Mono.just(false);
+                            })
+                            .flatMapMany(applied -> applied
+                                    ? afterBatchApplied(accounts, deltas).thenMany(Flux.fromArray(results))
+                                    : retryIndividually(batchId, batch, plan));
+                });
+    }
+
+    /**
+     * Revierte lo que el lote haya alcanzado a aplicar (solo las cuentas que aún llevan su marca) y procesa las
+     * transferencias aceptadas una a una. Si no se puede revertir, el resultado de esas transferencias es incierto.
+     */
+    private Flux<TransferResultDTO> retryIndividually(String batchId, List<TransferRequestDTO> batch, TransferPlan plan) {
+        return accountRepository.revertBalanceDeltas(batchId, plan.deltas)
+                .thenReturn(true)
+                .onErrorResume(ex -> {
+                    logger.error("No se pudo revertir el lote de transferencias {}, queda pendiente de conciliación", batchId, ex);
+                    return Mono.just(false);
+                })
+                .flatMapMany(reverted -> Flux.range(0, batch.size())
+                        .concatMap(i -> {
+                            if (!plan.accepted[i]) {
+                                return Mono.just(plan.results[i]);
                             }
-                            return Mono.just(account);
-                        });
+                            return reverted
+                                    ? transferIndividually(batch.get(i))
+                                    : Mono.just(transferResult(batch.get(i), new ResponseStatusException(
+                                            HttpStatus.INTERNAL_SERVER_ERROR, "Transferencia pendiente de conciliación")));
+                        }));
+    }
+
+    /**
+     * Valida el lote en memoria sobre saldos simulados y calcula el delta neto por cuenta, sin tocar Mongo.
+     */
+    static TransferPlan planTransfers(List<TransferRequestDTO> batch, Map<String, Account> accounts) {
+        TransferResultDTO[] results = new TransferResultDTO[batch.size()];
+        boolean[] accepted = new boolean[batch.size()];
+        Map<String, RunningBalance> running = new LinkedHashMap<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            TransferRequestDTO transfer = batch.get(i);
+            ResponseStatusException rejection = validateTransfer(transfer, accounts, running);
+            if (rejection != null) {
+                results[i] = transferResult(transfer, rejection);
+                continue;
             }
+            long amount = transfer.getAmount().getMinorUnits();
+            running.get(transfer.getFromAccountId()).apply(-amount);
+            running.get(transfer.getToAccountId()).apply(amount);
+            results[i] = transferResult(transfer, null);
+            accepted[i] = true;
         }
 
-
-        // Reglas para clientes empresariales
-        if (isBusiness) {
-            if ("AHORRO".equalsIgnoreCase(account.getType()) || "PLAZO_FIJO".equalsIgnoreCase(account.getType())) {
-                return Mono.error(new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST, "Clientes empresariales no pueden tener cuentas de ahorro ni plazo fijo"));
+        List<BalanceDelta> deltas = new ArrayList<>();
+        running.forEach((accountId, balance) -> {
+            if (balance.net != 0) {
+                deltas.add(new BalanceDelta(accountId, balance.net, Math.max(0, -balance.lowestNet)));
             }
+        });
+        return new TransferPlan(results, accepted, deltas);
+    }
 
+    static final class TransferPlan {
+        final TransferResultDTO[] results;
+        final boolean[] accepted;
+        final List<BalanceDelta> deltas;
 
-            if ("PYME".equalsIgnoreCase(customer.getProfile())) {
-                return hasCreditCard(customer.getId())
-                        .flatMap(hasCard -> {
-                            if (!hasCard) {
-                                return Mono.error(new ResponseStatusException(
-                                        HttpStatus.BAD_REQUEST, "Cliente PYME requiere tarjeta de crédito activa"));
-                            }
-                            return Mono.just(account);
-                        });
-            }
+        private TransferPlan(TransferResultDTO[] results, boolean[] accepted, List<BalanceDelta> deltas) {
+            this.results = results;
+            this.accepted = accepted;
+            this.deltas = deltas;
         }
+    }
 
-        return Mono.just(account);
+    private static ResponseStatusException validateTransfer(TransferRequestDTO transfer, Map<String, Account> accounts,
+                                                            Map<String, RunningBalance> running) {
+        if (transfer.getFromAccountId() == null || transfer.getToAccountId() == null) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, "La cuenta de origen y destino son obligatorias");
+        }
+        if (transfer.getAmount() == null || !transfer.getAmount().isPositive()) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, "El monto debe ser mayor a cero");
+        }
+        if (transfer.getFromAccountId().equals(transfer.getToAccountId())) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, "La cuenta de origen y destino deben ser distintas");
+        }
+        Account from = accounts.get(transfer.getFromAccountId());
+        if (from == null) {
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, "Cuenta origen no encontrada");
+        }
+        Account to = accounts.get(transfer.getToAccountId());
+        if (to == null) {
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, "Cuenta destino no encontrada");
+        }
+        RunningBalance fromBalance = running.computeIfAbsent(from.getId(), id -> new RunningBalance(from.getBalance()));
+        running.computeIfAbsent(to.getId(), id -> new RunningBalance(to.getBalance()));
+        if (fromBalance.balance < transfer.getAmount().getMinorUnits()) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Saldo insuficiente");
+        }
+        return null;
     }
 
-    private Mono<Boolean> hasCreditCard(String customerId) {
-        return creditClient.getCreditProductsByCustomer(customerId)
-                .any(credit -> "TARJETA_CREDITO".equalsIgnoreCase(credit.getCreditType()));
+    private Mono<Void> afterBatchApplied(Map<String, Account> accounts, List<BalanceDelta> deltas) {
+        List<Mono<Void>> portfolioUpdates = new ArrayList<>(deltas.size() + 1);
+        Map<String, Money> movements = new HashMap<>();
+        for (BalanceDelta delta : deltas) {
+            Account account = accounts.get(delta.getAccountId());
+            accountCache.evict(account);
+            Money amount = Money.ofMinor(delta.getAmount());
+            accountEvents.balanceMoved(account, amount);
+            movements.put(account.getId(), amount);
+            portfolioUpdates.add(trackPortfolio(account.getCustomerId(), account.getType(), 0, amount));
+        }
+        portfolioUpdates.add(trackSnapshots(movements));
+        return Mono.when(portfolioUpdates);
     }
 
-    public Mono<Void> transferBetweenAccounts(String fromAccountId, String toAccountId, Double amount) {
-        return accountRepository.findById(fromAccountId)
-                .flatMap(fromAccount -> accountRepository.findById(toAccountId)
-                        .flatMap(toAccount -> {
-                            if (fromAccount.getBalance() < amount) {
-                                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Saldo insuficiente"));
-                            }
+    private Mono<TransferResultDTO> transferIndividually(TransferRequestDTO transfer) {
+        return transferBetweenAccounts(transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount())
+                .then(Mono.fromSupplier(() -> transferResult(transfer, null)))
+                .onErrorResume(ResponseStatusException.class, ex -> Mono.just(transferResult(transfer, ex)))
+                .onErrorResume(ex -> Mono.just(transferResult(transfer, new ResponseStatusException(
+                        HttpStatus.INTERNAL_SERVER_ERROR, "Error al aplicar la transferencia"))));
+    }
 
-                            List<Account> updatedAccounts = Stream.of(fromAccount, toAccount)
-                                    .map(account -> {
-                                        if (account.getId().equals(fromAccountId)) {
-                                            account.setBalance(account.getBalance() - amount);
-                                        } else {
-                                            account.setBalance(account.getBalance() + amount);
-                                        }
-                                        return account;
-                                    })
-                                    .collect(Collectors.toList());
-
-                            return accountRepository.saveAll(updatedAccounts).then();
-                        }));
+    private static TransferResultDTO transferResult(TransferRequestDTO transfer, ResponseStatusException rejection) {
+        if (rejection == null) {
+            return new TransferResultDTO(transfer.getReference(), transfer.getFromAccountId(), transfer.getToAccountId(),
+                    transfer.getAmount(), TransferResultDTO.APPLIED, HttpStatus.OK.value(), "Transferencia realizada con éxito");
+        }
+        return new TransferResultDTO(transfer.getReference(), transfer.getFromAccountId(), transfer.getToAccountId(),
+                transfer.getAmount(), TransferResultDTO.REJECTED, rejection.getRawStatusCode(), rejection.getReason());
+    }
+
+    /**
+     * Saldo simulado de una cuenta dentro de un lote, en céntimos: el neto acumulado y el punto más bajo que alcanzó.
+     */
+    private static final class RunningBalance {
+        private long balance;
+        private long net;
+        private long lowestNet;
+
+        private RunningBalance(Money balance) {
+            this.balance = Money.minorUnitsOf(balance);
+        }
+
+        private void apply(long amount) {
+            balance += amount;
+            net += amount;
+            lowestNet = Math.min(lowestNet, net);
+        }
+    }
+
+    private Mono<CustomerPortfolio> portfolioOf(String customerId) {
+        return portfolioRepository.findById(customerId)
+                .filter(portfolio -> !portfolio.isRebuilding())
+                .switchIfEmpty(Mono.defer(() -> portfolioRepository.rebuild(customerId)));
+    }
+
+    /**
+     * Mantiene el resumen del cliente tras una mutación ya confirmada. Un fallo aquí no revierte la operación:
+     * se descarta el resumen para que la siguiente lectura lo reconstruya desde las cuentas.
+     */
+    private Mono<Void> trackPortfolio(String customerId, String accountType, int countDelta, Money balanceDelta) {
+        if (customerId == null) {
+            return Mono.empty();
+        }
+        return portfolioRepository.applyDelta(customerId, accountType, countDelta, balanceDelta)
+                .then()
+                .onErrorResume(ex -> {
+                    logger.warn("No se pudo actualizar el resumen del cliente {}, se reconstruirá", customerId, ex);
+                    return portfolioRepository.deleteById(customerId).onErrorResume(e -> Mono.empty());
+                });
+    }
+
+    private Mono<Void> trackSnapshot(String accountId, Money delta) {
+        return accountId == null ? Mono.empty() : trackSnapshots(Collections.singletonMap(accountId, delta));
+    }
+
+    /**
+     * Registra el movimiento del día para el reporte de saldo promedio. Igual que el resumen del cliente, un fallo
+     * aquí no revierte la operación ya confirmada.
+     */
+    private Mono<Void> trackSnapshots(Map<String, Money> netByAccount) {
+        return balanceSnapshotRepository.recordMovements(LocalDate.now(), netByAccount)
+                .onErrorResume(ex -> {
+                    logger.warn("No se pudo registrar el movimiento diario de {} cuentas", netByAccount.size(), ex);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Account> rejectDebit(String fromAccountId) {
+        return accountRepository.existsById(fromAccountId)
+                .flatMap(exists -> Mono.error(exists
+                        ? new ResponseStatusException(HttpStatus.BAD_REQUEST, "Saldo insuficiente")
+                        : new ResponseStatusException(HttpStatus.NOT_FOUND, "Cuenta origen no encontrada")));
+    }
+
+    // La cancelación del Mono retornado no llega a la operación: solo deja de esperar su resultado
+    private static Mono<Void> detached(Mono<Void> operation) {
+        Sinks.One<Void> outcome = Sinks.one();
+        operation.subscribe(null, outcome::tryEmitError, outcome::tryEmitEmpty);
+        return outcome.asMono();
+    }
+
+    // Solo un rechazo explícito garantiza que el abono no llegó a Mongo
+    private static boolean creditNotApplied(Throwable ex) {
+        return ex instanceof ResponseStatusException && ((ResponseStatusException) ex).getStatus().is4xxClientError();
+    }
+
+    private static Mono<Account> leavePending(String fromAccountId, String toAccountId, Money amount, Throwable ex) {
+        logger.error("Abono de {} de la cuenta {} a la cuenta {} con resultado incierto, queda pendiente de conciliación",
+                amount, fromAccountId, toAccountId, ex);
+        return Mono.error(new ResponseStatusException(
+                HttpStatus.INTERNAL_SERVER_ERROR, "Transferencia pendiente de conciliación", ex));
+    }
+
+    private Mono<Account> compensateDebit(String fromAccountId, Money amount) {
+        return accountRepository.credit(fromAccountId, amount)
+                .retry(COMPENSATION_RETRIES)
+                .doOnNext(compensated -> {
+                    accountCache.evict(compensated);
+                    accountEvents.balanceChanged(compensated, amount);
+                })
+                .doOnError(ex -> logger.error("No se pudo revertir el débito de {} en la cuenta {}",
+                        amount, fromAccountId, ex));
     }
 
     @Override
-    public Flux<Account> getAccountsByCustomer(String id) {
-        return accountRepository.findByCustomerId(id)
-                .switchIfEmpty(Flux.empty());
+    public Flux<Account> getAccountsByCustomer(String id, Set<String> fields) {
+        return fields == null ? accountRepository.findByCustomerId(id) : accountRepository.findFieldsByCustomerId(id, fields);
     }
 
     @Override
-    public Mono<Map<String, Double>> getDailyBalanceReport(String customerId) {
+    public Flux<AccountSummaryDTO> getAccountSummariesByCustomer(String id) {
+        return accountRepository.findSummariesByCustomerId(id);
+    }
+
+    /**
+     * Saldo promedio diario del mes en curso por cuenta: una lectura de las cuentas del cliente y una de sus
+     * acumulados del mes, sin recorrer el historial de movimientos.
+     */
+    @Override
+    public Mono<Map<String, Money>> getDailyBalanceReport(String customerId) {
+        LocalDate today = LocalDate.now();
+        YearMonth month = YearMonth.from(today);
         return accountRepository.findByCustomerId(customerId)
                 .collectList()
-                .map(accounts -> accounts.stream()
-                        .collect(Collectors.toMap(
-                                Account::getNumber,
-                                acc -> acc.getBalance() / LocalDate.now().getDayOfMonth()
-                        )));
+                .flatMap(accounts -> balanceSnapshotRepository.findAllById(accounts.stream()
+                                .map(account -> BalanceSnapshot.idOf(account.getId(), month))
+                                .collect(Collectors.toList()))
+                        .collectMap(BalanceSnapshot::getAccountId)
+                        .map(snapshots -> dailyBalanceReport(accounts, snapshots, today)));
     }
 
+    static Map<String, Money> dailyBalanceReport(List<Account> accounts, Map<String, BalanceSnapshot> snapshots,
+                                                 LocalDate today) {
+        Map<String, Money> report = new LinkedHashMap<>();
+        for (Account account : accounts) {
+            report.put(account.getNumber(), BalanceSnapshot.averageDailyBalance(
+                    account.getBalance(), snapshots.get(account.getId()), today));
+        }
+        return report;
+    }
+
+    /**
+     * Totales de comisiones del rango leídos de los acumulados diarios y mensuales, sin recorrer cuentas ni asientos.
+     */
     @Override
-    public Flux<Account> getCommissionReport(LocalDate startDate, LocalDate endDate) {
-        return accountRepository.findAll()
-                .filter(acc -> {
-                    LocalDateTime lastTransactionDateTime = acc.getLastTransactionDate();
-                    if (lastTransactionDateTime == null) {
-                        return false;
+    public Mono<CommissionSummaryDTO> getCommissionTotals(LocalDate startDate, LocalDate endDate, String groupBy) {
+        String dimension = groupBy == null ? CommissionRollup.BY_ACCOUNT_TYPE : groupBy.toUpperCase(Locale.ROOT);
+        if (!CommissionRollup.BY_ACCOUNT_TYPE.equals(dimension) && !CommissionRollup.BY_CUSTOMER.equals(dimension)) {
+            return Mono.error(new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "Agrupación inválida, use TIPO_CUENTA o CLIENTE"));
+        }
+        return commissionRollupRepository.totals(startDate, endDate, dimension)
+                .map(rollup -> new CommissionTotalDTO(rollup.getKey(), rollup.getTotal(), rollup.getCount()))
+                .collectList()
+                .map(totals -> {
+                    long total = 0;
+                    long count = 0;
+                    for (CommissionTotalDTO entry : totals) {
+                        total += Money.minorUnitsOf(entry.getTotal());
+                        count += entry.getCount();
                     }
-                    LocalDate lastTransaction = lastTransactionDateTime.toLocalDate();
+                    return new CommissionSummaryDTO(startDate, endDate, dimension, Money.ofMinor(total), count, totals);
+                });
+    }
 
-                    return (lastTransaction.isEqual(startDate) || lastTransaction.isAfter(startDate))
-                            && (lastTransaction.isEqual(endDate) || lastTransaction.isBefore(endDate));
-                })
-                .filter(Account::isHasMaintenanceFee)
-                .switchIfEmpty(Flux.error(new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "No se encontraron cuentas con comisiones cobradas en el rango de fechas indicado")));
+    /**
+     * Asienta comisiones ya cobradas y suma sus acumulados. El cobro no se revierte si esto falla: queda registrado
+     * en el log para conciliarlo.
+     */
+    private Mono<Void> recordCommissions(List<CommissionEntry> entries) {
+        if (entries.isEmpty()) {
+            return Mono.empty();
+        }
+        return commissionLedgerRepository.insert(entries)
+                .then(commissionRollupRepository.increment(entries))
+                .onErrorResume(ex -> {
+                    logger.error("No se pudieron asentar {} comisiones cobradas", entries.size(), ex);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Paginado por keyset sobre (lastTransactionDate, _id): el cursor de la página siguiente identifica la última
+     * cuenta entregada, así ningún resultado queda fuera por el tope de tamaño de página.
+     */
+    @Override
+    public Mono<AccountStreamPageDTO<Account>> getCommissionReport(LocalDate startDate, LocalDate endDate, String cursor,
+                                                                 int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_REPORT_PAGE_SIZE));
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+        return Mono.defer(() -> {
+            String after = decodeCursor(cursor);
+            LocalDateTime afterDate = null;
+            String afterId = null;
+            if (after != null) {
+                int separator = after.indexOf(REPORT_CURSOR_SEPARATOR);
+                try {
+                    afterDate = LocalDateTime.parse(after.substring(0, Math.max(separator, 0)));
+                } catch (DateTimeParseException ex) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de paginación inválido");
+                }
+                afterId = after.substring(separator + 1);
+            }
+            LocalDateTime pageAfterDate = afterDate;
+            String pageAfterId = afterId;
+            // Solo las claves del último elemento de la página y del siguiente: el cursor va en la cabecera antes
+            // que el cuerpo, y la página se transmite acotada a esa clave sin acumularla
+            return accountRepository.findCommissionKeys(from, to, afterDate, afterId, pageSize - 1, 2)
+                    .collectList()
+                    .map(keys -> {
+                        Flux<Account> page;
+                        String nextCursor = null;
+                        if (keys.size() < 2) {
+                            page = accountRepository.findCommissionCandidates(from, to, pageAfterDate, pageAfterId,
+                                    null, null, pageSize);
+                        } else {
+                            Account last = keys.get(0);
+                            page = accountRepository.findCommissionCandidates(from, to, pageAfterDate, pageAfterId,
+                                    last.getLastTransactionDate(), last.getId(), 0);
+                            nextCursor = encodeCursor(last.getLastTransactionDate() + REPORT_CURSOR_SEPARATOR + last.getId());
+                        }
+                        if (cursor == null) {
+                            page = page.switchIfEmpty(Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND,
+                                    "No se encontraron cuentas con comisiones cobradas en el rango de fechas indicado")));
+                        }
+                        return new AccountStreamPageDTO<>(page, nextCursor);
+                    });
+        });
     }
 
 
@@ -0,0 +1,169 @@
+package com.bank.pe.msaccounts.service.impl;
+
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.money.Money;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Combina las actualizaciones de saldo concurrentes sobre una misma cuenta. Las cuentas se reparten por id en un
+ * número fijo de carriles; cada carril acumula las mutaciones de una ventana corta y escribe una sola vez por cuenta
+ * el valor neto (el último saldo solicitado). Los llamadores con ese mismo saldo comparten el resultado; los que
+ * pidieron otro saldo quedaron sobrescritos en la ventana y reciben 409 en lugar de un éxito que no se aplicó.
+ */
+@Component
+public class BalanceWriteCombiner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceWriteCombiner.class);
+
+    /**
+     * Escritura atómica del saldo neto de una cuenta; se invoca una vez por cuenta y por ventana.
+     */
+    @FunctionalInterface
+    public interface BalanceWriter {
+        Mono<Account> write(String accountId, Money balance);
+    }
+
+    private final Lane[] lanes;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final int laneCapacity;
+    private final DistributionSummary combinedWrites;
+
+    public BalanceWriteCombiner(MeterRegistry meterRegistry,
+                                @Value("${ms-accounts.balance-writes.lanes:0}") int lanes,
+                                @Value("${ms-accounts.balance-writes.window:2ms}") Duration window,
+                                @Value("${ms-accounts.balance-writes.max-batch-size:256}") int maxBatchSize,
+                                @Value("${ms-accounts.balance-writes.lane-capacity:10000}") int laneCapacity) {
+        int laneCount = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            this.lanes[i] = new Lane();
+        }
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.laneCapacity = laneCapacity;
+        this.combinedWrites = DistributionSummary.builder("accounts.balance.writes.combined")
+                .description("Mutaciones de saldo resueltas por cada escritura a Mongo")
+                .register(meterRegistry);
+        Gauge.builder("accounts.balance.writes.pending", this, BalanceWriteCombiner::pendingWrites)
+                .description("Mutaciones de saldo encoladas en todos los carriles")
+                .register(meterRegistry);
+    }
+
+    private double pendingWrites() {
+        int pending = 0;
+        for (Lane lane : lanes) {
+            pending += lane.size.get();
+        }
+        return pending;
+    }
+
+    public Mono<Account> submit(String accountId, Money balance, BalanceWriter writer) {
+        return Mono.defer(() -> {
+            PendingWrite pending = new PendingWrite(accountId, balance, writer);
+            if (!lanes[Math.floorMod(accountId.hashCode(), lanes.length)].offer(pending)) {
+                return Mono.error(new ResponseStatusException(
+                        HttpStatus.SERVICE_UNAVAILABLE, "Demasiadas actualizaciones de saldo pendientes"));
+            }
+            return pending.result.asMono();
+        });
+    }
+
+    private final class Lane {
+        private final Queue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+        boolean offer(PendingWrite pending) {
+            if (size.incrementAndGet() > laneCapacity) {
+                size.decrementAndGet();
+                return false;
+            }
+            queue.offer(pending);
+            scheduleFlush();
+            return true;
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled.compareAndSet(false, true)) {
+                Mono.delay(window).subscribe(tick -> flush());
+            }
+        }
+
+        private void flush() {
+            // Agrupa por cuenta conservando el orden de llegada dentro de cada grupo
+            Map<String, List<PendingWrite>> byAccount = new LinkedHashMap<>();
+            PendingWrite pending;
+            int drained = 0;
+            while (drained < maxBatchSize && (pending = queue.poll()) != null) {
+                size.decrementAndGet();
+                byAccount.computeIfAbsent(pending.accountId, id -> new ArrayList<>()).add(pending);
+                drained++;
+            }
+
+            Flux.fromIterable(byAccount.values())
+                    .flatMap(this::write)
+                    .doFinally(signal -> {
+                        flushScheduled.set(false);
+                        if (!queue.isEmpty()) {
+                            scheduleFlush();
+                        }
+                    })
+                    .subscribe(null, ex -> logger.error("Falló el vaciado de un carril de saldos", ex));
+        }
+
+        private Mono<Void> write(List<PendingWrite> group) {
+            PendingWrite last = group.get(group.size() - 1);
+            combinedWrites.record(group.size());
+            // defer: una excepción del writer también debe completar a los llamadores, no dejarlos esperando
+            return Mono.defer(() -> last.writer.write(last.accountId, last.balance))
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(
+                            HttpStatus.NOT_FOUND, "Cuenta bancaria no encontrada")))
+                    .doOnNext(account -> group.forEach(p -> {
+                        if (p.balance.equals(last.balance)) {
+                            p.result.tryEmitValue(account);
+                        } else {
+                            p.result.tryEmitError(new ResponseStatusException(HttpStatus.CONFLICT,
+                                    "El saldo fue reemplazado por otra actualización concurrente"));
+                        }
+                    }))
+                    .doOnError(ex -> group.forEach(p -> p.result.tryEmitError(ex)))
+                    .onErrorResume(ex -> Mono.empty())
+                    .then();
+        }
+    }
+
+    private static final class PendingWrite {
+        private final String accountId;
+        private final Money balance;
+        private final BalanceWriter writer;
+        private final Sinks.One<Account> result = Sinks.one();
+
+        private PendingWrite(String accountId, Money balance, BalanceWriter writer) {
+            this.accountId = accountId;
+            this.balance = balance;
+            this.writer = writer;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.bank.pe.msaccounts.cache;
+
+import com.bank.pe.msaccounts.entity.IdempotencyRecord;
+import com.bank.pe.msaccounts.repository.IdempotencyRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyStoreTest {
+
+    private static final TypeReference<String> STRING = new TypeReference<>() { };
+
+    private IdempotencyRepository repository;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRepository.class);
+        when(repository.reserve(any())).thenReturn(Mono.just(true));
+        when(repository.complete(anyString(), anyInt(), any(), any())).thenReturn(Mono.empty());
+        when(repository.release(anyString())).thenReturn(Mono.empty());
+        when(repository.refresh(anyString(), any())).thenReturn(Mono.just(true));
+        store = new IdempotencyStore(repository, new ObjectMapper(), new SimpleMeterRegistry(), Duration.ofHours(24),
+                Duration.ofMinutes(10), 100, Duration.ofSeconds(1), Duration.ofMillis(10));
+    }
+
+    @Test
+    void execute_concurrentDuplicatesShareTheInFlightResult() {
+        Sinks.One<ResponseEntity<String>> transfer = Sinks.one();
+        AtomicInteger executions = new AtomicInteger();
+        List<String> request = List.of("A1", "A2", "10.00");
+
+        Mono<ResponseEntity<String>> first = store.execute("transfer", "K1", request, STRING, () -> {
+            executions.incrementAndGet();
+            return transfer.asMono();
+        });
+        Mono<ResponseEntity<String>> duplicate = store.execute("transfer", "K1", request, STRING, () -> {
+            executions.incrementAndGet();
+            return Mono.just(ResponseEntity.ok("no debería ejecutarse"));
+        });
+
+        StepVerifier.create(first.zipWith(duplicate))
+                .then(() -> transfer.tryEmitValue(ResponseEntity.ok("Transferencia realizada con éxito")))
+                .assertNext(responses -> {
+                    assertEquals("Transferencia realizada con éxito", responses.getT1().getBody());
+                    assertEquals("Transferencia realizada con éxito", responses.getT2().getBody());
+                    assertNull(responses.getT1().getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+                    assertEquals("true", responses.getT2().getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+                })
+                .verifyComplete();
+        assertEquals(1, executions.get());
+        verify(repository).complete(eq("transfer:K1"), eq(200), eq("\"Transferencia realizada con éxito\""), any());
+    }
+
+    @Test
+    void execute_replaysCompletedResponseFromMongoAndRejectsOtherPayload() {
+        when(repository.reserve(any())).thenReturn(Mono.just(false));
+        when(repository.findById("transfer:K3")).thenReturn(Mono.just(new IdempotencyRecord("transfer:K3",
+                store.fingerprint(List.of("A1", "A2", "10.00")), IdempotencyRecord.COMPLETED, 200,
+                "\"Transferencia realizada con éxito\"", null, null)));
+
+        StepVerifier.create(store.execute("transfer", "K3", List.of("A1", "A2", "10.00"), STRING,
+                        () -> Mono.error(new IllegalStateException("no debería ejecutarse"))))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals("true", response.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+                })
+                .verifyComplete();
+        StepVerifier.create(store.execute("transfer", "K3", List.of("A1", "A2", "99.00"), STRING,
+                        () -> Mono.error(new IllegalStateException("no debería ejecutarse"))))
+                .expectErrorSatisfies(ex -> assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+                        ((ResponseStatusException) ex).getStatus()))
+                .verify();
+    }
+
+    @Test
+    void execute_serverErrorReleasesKeySoRetryRunsAgain() {
+        AtomicInteger executions = new AtomicInteger();
+        StepVerifier.create(store.execute("create-account", "K4", "cuenta", STRING, () -> {
+                    executions.incrementAndGet();
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Servicio no disponible"));
+                }))
+                .assertNext(response -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()))
+                .verifyComplete();
+        StepVerifier.create(store.execute("create-account", "K4", "cuenta", STRING, () -> {
+                    executions.incrementAndGet();
+                    return Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("creada"));
+                }))
+                .assertNext(response -> assertEquals(HttpStatus.CREATED, response.getStatusCode()))
+                .verifyComplete();
+
+        assertEquals(2, executions.get());
+        verify(repository).release("create-account:K4");
+        verify(repository, never()).complete(eq("create-account:K4"), eq(503), any(), any());
+    }
+
+    @Test
+    void execute_takenOverActionIsNotCutByTheWaitTimeout() {
+        List<String> request = List.of("A1", "A2", "10.00");
+        when(repository.reserve(any())).thenReturn(Mono.just(false));
+        when(repository.findById("transfer:K5")).thenReturn(Mono.just(new IdempotencyRecord("transfer:K5",
+                store.fingerprint(request), IdempotencyRecord.IN_PROGRESS, null, null, null, null)));
+        when(repository.takeOver(eq("transfer:K5"), any(), any())).thenReturn(Mono.just(true));
+
+        // La acción re-ejecutada dura más que in-progress-timeout (1s)
+        StepVerifier.withVirtualTime(() -> store.execute("transfer", "K5", request, STRING,
+                        () -> Mono.delay(Duration.ofSeconds(3)).thenReturn(ResponseEntity.ok("Transferencia realizada con éxito"))))
+                .thenAwait(Duration.ofSeconds(3))
+                .assertNext(response -> assertEquals(HttpStatus.OK, response.getStatusCode()))
+                .verifyComplete();
+
+        verify(repository).complete(eq("transfer:K5"), eq(200), any(), any());
+        verify(repository, never()).release("transfer:K5");
+    }
+
+    @Test
+    void execute_ownerRefreshesTheReservationWhileTheActionRuns() {
+        // La acción dura tres veces in-progress-timeout (1s): sin renovar, otra instancia la tomaría y la repetiría
+        StepVerifier.withVirtualTime(() -> store.execute("transfer", "K6", List.of("A1", "A2", "10.00"), STRING,
+                        () -> Mono.delay(Duration.ofSeconds(3)).thenReturn(ResponseEntity.ok("Transferencia realizada con éxito"))))
+                .thenAwait(Duration.ofSeconds(3))
+                .assertNext(response -> assertEquals(HttpStatus.OK, response.getStatusCode()))
+                .verifyComplete();
+
+        verify(repository, atLeast(8)).refresh(eq("transfer:K6"), any());
+        verify(repository, never()).takeOver(anyString(), any(), any());
+        verify(repository).complete(eq("transfer:K6"), eq(200), any(), any());
+    }
+}
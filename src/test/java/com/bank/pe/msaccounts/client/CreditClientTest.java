@@ -0,0 +1,48 @@
+package com.bank.pe.msaccounts.client;
+
+import com.bank.pe.msaccounts.config.DownstreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CreditClientTest {
+
+    @Test
+    void hasOverdueDebt_customerWithoutCreditRecordHasNoOverdueDebt() {
+        CreditClient client = client(HttpStatus.NOT_FOUND, "{\"message\":\"Cliente sin créditos\"}");
+
+        StepVerifier.create(client.hasOverdueDebt("C1")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void hasOverdueDebt_mapsOtherResponses() {
+        StepVerifier.create(client(HttpStatus.OK, "true").hasOverdueDebt("C1")).expectNext(true).verifyComplete();
+        StepVerifier.create(client(HttpStatus.BAD_REQUEST, "{}").hasOverdueDebt("C1"))
+                .expectErrorSatisfies(ex -> assertEquals(HttpStatus.FAILED_DEPENDENCY, ((ResponseStatusException) ex).getStatus()))
+                .verify();
+    }
+
+    private static CreditClient client(HttpStatus status, String body) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(status)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(body)
+                        .build()))
+                .build();
+        DownstreamProperties.Downstream properties = new DownstreamProperties.Downstream("http://localhost:0");
+        DownstreamClients downstreams = mock(DownstreamClients.class);
+        when(downstreams.credits()).thenReturn(new Downstream("ms-credits", webClient, properties, new SimpleMeterRegistry()));
+        return new CreditClient(downstreams);
+    }
+}
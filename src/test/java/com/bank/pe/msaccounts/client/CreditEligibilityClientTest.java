@@ -0,0 +1,147 @@
+package com.bank.pe.msaccounts.client;
+
+import com.bank.pe.msaccounts.config.DownstreamProperties;
+import com.bank.pe.msaccounts.dto.CreditEligibilityDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CreditEligibilityClientTest {
+
+    private final CreditClient creditClient = mock(CreditClient.class);
+    private final List<String> batchBodies = new CopyOnWriteArrayList<>();
+    private CreditEligibilityClient client;
+
+    @AfterEach
+    void shutdown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    void getEligibility_groupsConcurrentRequestsIntoOneDeduplicatedBatch() {
+        client = client(Duration.ofSeconds(5), request -> json(HttpStatus.OK,
+                "[{\"customerId\":\"C1\",\"hasOverdueDebt\":true,\"hasCreditCard\":false},"
+                        + "{\"customerId\":\"C2\",\"hasOverdueDebt\":false,\"hasCreditCard\":true}]"));
+
+        List<CreditEligibilityDTO> results = Flux.merge(
+                        client.getEligibility("C1"), client.getEligibility("C2"), client.getEligibility("C1"))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("[\"C1\",\"C2\"]"), batchBodies);
+        assertEquals(3, results.size());
+        assertEquals(2, results.stream().filter(result -> "C1".equals(result.getCustomerId()) && result.isHasOverdueDebt()).count());
+        assertTrue(results.stream().anyMatch(result -> "C2".equals(result.getCustomerId()) && result.getHasCreditCard()));
+        verify(creditClient, never()).hasOverdueDebt("C1");
+    }
+
+    @Test
+    void getEligibility_resolvesCustomersMissingFromTheBatchIndividually() {
+        client = client(Duration.ofSeconds(5), request -> json(HttpStatus.OK,
+                "[{\"customerId\":\"C1\",\"hasOverdueDebt\":false,\"hasCreditCard\":false}]"));
+        stubIndividual("C2", Mono.just(true));
+
+        List<CreditEligibilityDTO> results = Flux.merge(client.getEligibility("C1"), client.getEligibility("C2"))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(1, batchBodies.size());
+        assertTrue(results.contains(new CreditEligibilityDTO("C2", true, false)));
+        verify(creditClient, never()).hasOverdueDebt("C1");
+    }
+
+    @Test
+    void getEligibility_backsOffWhenTheBatchEndpointIsMissing() {
+        client = client(Duration.ofSeconds(5), request -> json(HttpStatus.NOT_FOUND, "{}"));
+        stubIndividual("C1", Mono.just(false));
+
+        StepVerifier.create(client.getEligibility("C1"))
+                .expectNext(new CreditEligibilityDTO("C1", false, false))
+                .verifyComplete();
+        StepVerifier.create(client.getEligibility("C1"))
+                .expectNext(new CreditEligibilityDTO("C1", false, false))
+                .verifyComplete();
+
+        // La segunda consulta ya no intenta el lote mientras dure el backoff
+        assertEquals(1, batchBodies.size());
+    }
+
+    @Test
+    void getEligibility_failsTheWaitersWhenTheFallbackCompletesEmpty() {
+        client = client(Duration.ofSeconds(5), request -> json(HttpStatus.OK, "[]"));
+        stubIndividual("C1", Mono.empty());
+
+        StepVerifier.create(client.getEligibility("C1"))
+                .expectErrorSatisfies(ex -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((ResponseStatusException) ex).getStatus()))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void getEligibility_fallsBackToIndividualQueriesWhenTheBatchDoesNotAnswer() {
+        client = client(Duration.ofMillis(100), request -> Mono.never());
+        stubIndividual("C1", Mono.just(true));
+
+        StepVerifier.create(client.getEligibility("C1"))
+                .expectNext(new CreditEligibilityDTO("C1", true, false))
+                .verifyComplete();
+        assertFalse(batchBodies.isEmpty());
+    }
+
+    private void stubIndividual(String customerId, Mono<Boolean> overdueDebt) {
+        when(creditClient.hasOverdueDebt(customerId)).thenReturn(overdueDebt);
+        when(creditClient.getCreditProductsByCustomer(customerId)).thenReturn(Flux.empty());
+    }
+
+    private CreditEligibilityClient client(Duration waitTimeout, Function<ClientRequest, Mono<ClientResponse>> batchEndpoint) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    MockClientHttpRequest captured = new MockClientHttpRequest(HttpMethod.POST, URI.create("/"));
+                    return request.writeTo(captured, ExchangeStrategies.withDefaults())
+                            .then(Mono.defer(captured::getBodyAsString))
+                            .doOnNext(batchBodies::add)
+                            .then(batchEndpoint.apply(request));
+                })
+                .build();
+        DownstreamProperties.Downstream properties = new DownstreamProperties.Downstream("http://localhost:0");
+        DownstreamClients downstreams = mock(DownstreamClients.class);
+        when(downstreams.credits()).thenReturn(new Downstream("ms-credits", webClient, properties, new SimpleMeterRegistry()));
+        return new CreditEligibilityClient(downstreams, creditClient, new SimpleMeterRegistry(),
+                true, Duration.ofMillis(20), 100, 1000, Duration.ofMinutes(1), waitTimeout);
+    }
+
+    private static Mono<ClientResponse> json(HttpStatus status, String body) {
+        return Mono.just(ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+}
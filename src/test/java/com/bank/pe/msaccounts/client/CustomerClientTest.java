@@ -0,0 +1,96 @@
+package com.bank.pe.msaccounts.client;
+
+import com.bank.pe.msaccounts.config.DownstreamProperties;
+import com.bank.pe.msaccounts.dto.CustomerDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerClientTest {
+
+    private static final String CUSTOMER = "{\"id\":\"C1\",\"type\":\"PERSONAL\",\"profile\":\"VIP\"}";
+
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+
+    @Test
+    void getCustomerById_concurrentCallsShareOneDownstreamCall() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        CustomerClient client = client(request -> gate.asMono().then(json(HttpStatus.OK, CUSTOMER)));
+
+        Mono<List<CustomerDTO>> concurrent = Flux.merge(
+                        client.getCustomerById("C1"), client.getCustomerById("C1"), client.getCustomerById("C1"))
+                .collectList()
+                .cache();
+        Disposable pending = concurrent.subscribe();
+        // Un suscriptor que cancela no corta la carga compartida
+        client.getCustomerById("C1").subscribe().dispose();
+        gate.tryEmitEmpty();
+
+        List<CustomerDTO> customers = concurrent.block(Duration.ofSeconds(5));
+        assertEquals(3, customers.size());
+        assertTrue(customers.stream().allMatch(customer -> "C1".equals(customer.getId())));
+        assertEquals(1, downstreamCalls.get());
+
+        // Ya en caché: no hay otra llamada
+        StepVerifier.create(client.getCustomerById("C1")).expectNextCount(1).verifyComplete();
+        assertEquals(1, downstreamCalls.get());
+        pending.dispose();
+    }
+
+    @Test
+    void getCustomerById_errorsAreNotCached() {
+        CustomerClient client = client(request -> downstreamCalls.get() == 1
+                ? json(HttpStatus.NOT_FOUND, "{}")
+                : json(HttpStatus.OK, CUSTOMER));
+
+        StepVerifier.create(client.getCustomerById("C1"))
+                .expectErrorSatisfies(ex -> assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) ex).getStatus()))
+                .verify();
+        StepVerifier.create(client.getCustomerById("C1"))
+                .expectNextMatches(customer -> "C1".equals(customer.getId()))
+                .verifyComplete();
+
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    private CustomerClient client(Function<ClientRequest, Mono<ClientResponse>> endpoint) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    downstreamCalls.incrementAndGet();
+                    return endpoint.apply(request);
+                })
+                .build();
+        DownstreamProperties.Downstream properties = new DownstreamProperties.Downstream("http://localhost:0");
+        DownstreamClients downstreams = mock(DownstreamClients.class);
+        when(downstreams.customers()).thenReturn(new Downstream("ms-customer", webClient, properties, new SimpleMeterRegistry()));
+        return new CustomerClient(downstreams, new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+    }
+
+    private static Mono<ClientResponse> json(HttpStatus status, String body) {
+        return Mono.just(ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+}
@@ -0,0 +1,121 @@
+package com.bank.pe.msaccounts.client;
+
+import com.bank.pe.msaccounts.config.DownstreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DownstreamTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void call_servesLastGoodValueWhileOpenAndDoesNotCallService() {
+        Downstream downstream = downstream(Duration.ofMinutes(1), 10);
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new IOException("Conexión rechazada"));
+        });
+
+        StepVerifier.create(downstream.call("customer", "C1", Mono.just("PERSONAL"))).expectNext("PERSONAL").verifyComplete();
+        // Con 4 llamadas registradas y 3 fallidas (75%) se supera el umbral del 50%
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(downstream.call("customer", "C1", failing)).expectNext("PERSONAL").verifyComplete();
+        }
+        assertEquals(DownstreamCircuitBreaker.State.OPEN, breakerStateGauge());
+
+        // Abierto: no se llama al servicio; sin valor previo para la clave se responde 503
+        StepVerifier.create(downstream.call("customer", "C1", failing)).expectNext("PERSONAL").verifyComplete();
+        StepVerifier.create(downstream.call("customer", "C2", failing))
+                .expectErrorSatisfies(ex -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                        ((ResponseStatusException) ex).getStatus()))
+                .verify();
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.get("downstream.calls.rejected").tag("reason", "circuit-open").counter().count());
+    }
+
+    @Test
+    void call_clientErrorsDoNotOpenCircuitNorUseFallback() {
+        Downstream downstream = downstream(Duration.ofMinutes(1), 10);
+        downstream.call("customer", "C1", Mono.just("PERSONAL")).block();
+
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(downstream.call("customer", "C1",
+                            Mono.<String>error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente no encontrado"))))
+                    .expectErrorSatisfies(ex -> assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) ex).getStatus()))
+                    .verify();
+        }
+        assertEquals(DownstreamCircuitBreaker.State.CLOSED, breakerStateGauge());
+    }
+
+    @Test
+    void call_rejectsBeyondBulkheadWithoutQueueing() {
+        Downstream downstream = downstream(Duration.ZERO, 1);
+
+        StepVerifier.create(downstream.call("customer", "C1", Mono.never()))
+                .expectSubscription()
+                .then(() -> StepVerifier.create(downstream.call("customer", "C2", Mono.just("X")))
+                        .expectErrorSatisfies(ex -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                                ((ResponseStatusException) ex).getStatus()))
+                        .verify())
+                .thenCancel()
+                .verify();
+
+        StepVerifier.create(downstream.call("customer", "C2", Mono.just("X"))).expectNext("X").verifyComplete();
+        assertEquals(1.0, meterRegistry.get("downstream.calls.rejected").tag("reason", "bulkhead").counter().count());
+    }
+
+    @Test
+    void circuitBreaker_ignoresOutcomesOfCallsAdmittedBeforeTheProbe() {
+        DownstreamProperties.CircuitBreaker properties = new DownstreamProperties.CircuitBreaker();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(50);
+        properties.setOpenDuration(Duration.ZERO);
+        properties.setHalfOpenCalls(1);
+        DownstreamCircuitBreaker breaker = new DownstreamCircuitBreaker(properties);
+
+        // Llamada lenta admitida con el circuito cerrado
+        long slow = breaker.tryAcquire();
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquire());
+        }
+        assertEquals(DownstreamCircuitBreaker.State.OPEN, breaker.state());
+        long probe = breaker.tryAcquire();
+        assertEquals(DownstreamCircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        // La llamada vieja termina durante la prueba: ni cierra el circuito ni devuelve un permiso de prueba
+        breaker.onSuccess(slow);
+        breaker.release(slow);
+        assertEquals(DownstreamCircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(DownstreamCircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        breaker.onSuccess(probe);
+        assertEquals(DownstreamCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    private Downstream downstream(Duration staleWindow, int maxConcurrentRequests) {
+        DownstreamProperties.Downstream properties = new DownstreamProperties.Downstream("http://localhost:0");
+        properties.setStaleWindow(staleWindow);
+        properties.setMaxConcurrentRequests(maxConcurrentRequests);
+        properties.getCircuitBreaker().setWindowSize(10);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setFailureRateThreshold(50);
+        return new Downstream("ms-test", null, properties, meterRegistry);
+    }
+
+    private DownstreamCircuitBreaker.State breakerStateGauge() {
+        double value = meterRegistry.get("downstream.circuit.state").gauge().value();
+        return DownstreamCircuitBreaker.State.values()[(int) value];
+    }
+}
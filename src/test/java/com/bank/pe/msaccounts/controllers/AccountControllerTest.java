@@ -0,0 +1,72 @@
+package com.bank.pe.msaccounts.controllers;
+
+import com.bank.pe.msaccounts.cache.IdempotencyStore;
+import com.bank.pe.msaccounts.dto.AccountMapper;
+import com.bank.pe.msaccounts.dto.AccountPageDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.events.AccountEventPublisher;
+import com.bank.pe.msaccounts.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountControllerTest {
+
+    private final AccountService accountService = mock(AccountService.class);
+    private final WebTestClient client = WebTestClient.bindToController(new AccountController(accountService,
+                    mock(AccountMapper.class), mock(IdempotencyStore.class), mock(AccountEventPublisher.class)))
+            .build();
+
+    @Test
+    void getAllAccounts_withoutAcceptHeaderReturnsTheJsonPage() {
+        when(accountService.listAccounts(isNull(), eq(100), isNull()))
+                .thenReturn(Mono.just(new AccountPageDTO<>(List.of(account("A1"), account("A2")), "c2")));
+
+        client.get().uri("/api/v1/accounts")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals("X-Next-Cursor", "c2")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo("A1");
+
+        verify(accountService, never()).streamAccounts(any());
+    }
+
+    @Test
+    void streamAllAccounts_exportsNdjsonOnItsOwnPath() {
+        when(accountService.streamAccounts(null)).thenReturn(Flux.just(account("A1"), account("A2")));
+
+        Flux<Account> exported = client.get().uri("/api/v1/accounts/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Account.class)
+                .getResponseBody();
+
+        StepVerifier.create(exported.map(Account::getId))
+                .expectNext("A1", "A2")
+                .verifyComplete();
+    }
+
+    private static Account account(String id) {
+        Account account = new Account();
+        account.setId(id);
+        return account;
+    }
+}
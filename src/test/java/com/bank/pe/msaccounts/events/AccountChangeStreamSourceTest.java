@@ -0,0 +1,90 @@
+package com.bank.pe.msaccounts.events;
+
+import com.bank.pe.msaccounts.dto.AccountEventDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountChangeStreamSourceTest {
+
+    private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final AccountEventPublisher publisher = new AccountEventPublisher(new SimpleMeterRegistry(),
+            AccountEventPublisher.SOURCE_CHANGE_STREAM, 16, 16, AccountEventPublisher.LAG_DISCONNECT, Duration.ofSeconds(15));
+    private final AccountChangeStreamSource source = new AccountChangeStreamSource(mongoTemplate, publisher);
+
+    @AfterEach
+    void stop() {
+        source.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void start_restartsWithoutTokenAndPublishesResetWhenHistoryIsLost() {
+        BsonDocument token = new BsonDocument("_data", new BsonString("8263"));
+        ChangeStreamEvent<Account> insert = mock(ChangeStreamEvent.class);
+        when(insert.getResumeToken()).thenReturn(token);
+        when(insert.getOperationType()).thenReturn(OperationType.INSERT);
+        when(insert.getBody()).thenReturn(account("A1", "C1"));
+        when(mongoTemplate.getCollectionName(Account.class)).thenReturn("accounts");
+        when(mongoTemplate.changeStream(eq("accounts"), any(ChangeStreamOptions.class), eq(Account.class)))
+                .thenReturn(Flux.concat(Flux.just(insert), Flux.error(serverError(6, "HostUnreachable"))),
+                        Flux.error(serverError(286, "ChangeStreamHistoryLost")),
+                        Flux.never());
+
+        StepVerifier.create(publisher.subscribe("C1", null, null))
+                .then(source::start)
+                .assertNext(event -> assertEquals(AccountEventDTO.CREATED, event.getType()))
+                // El REINICIO no tiene cliente, pero llega también a los suscriptores filtrados
+                .assertNext(event -> assertEquals(AccountEventDTO.RESET, event.getType()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        ArgumentCaptor<ChangeStreamOptions> options = ArgumentCaptor.forClass(ChangeStreamOptions.class);
+        verify(mongoTemplate, timeout(10_000).times(3)).changeStream(eq("accounts"), options.capture(), eq(Account.class));
+        List<ChangeStreamOptions> attempts = options.getAllValues();
+        assertFalse(attempts.get(0).getResumeToken().isPresent());
+        // Una falla transitoria reanuda desde el último token recibido
+        assertEquals(token, attempts.get(1).getResumeToken().get());
+        // El token perdido se descarta: el stream se abre desde el momento actual
+        assertFalse(attempts.get(2).getResumeToken().isPresent());
+    }
+
+    private static MongoCommandException serverError(int code, String codeName) {
+        return new MongoCommandException(new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(code))
+                .append("codeName", new BsonString(codeName))
+                .append("errmsg", new BsonString(codeName)), new ServerAddress());
+    }
+
+    private static Account account(String id, String customerId) {
+        Account account = new Account();
+        account.setId(id);
+        account.setCustomerId(customerId);
+        return account;
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.pe.msaccounts.events;
+
+import com.bank.pe.msaccounts.dto.AccountEventDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccountEventPublisherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void subscribe_resumesFromLastEventIdAndFiltersByCustomer() {
+        AccountEventPublisher publisher = publisher(4, 16);
+        publisher.balanceChanged(account("A1", "C1"), Money.of("10.00")); // 1
+        publisher.balanceChanged(account("B1", "C2"), Money.of("20.00")); // 2
+        publisher.balanceChanged(account("A1", "C1"), Money.of("30.00")); // 3
+
+        StepVerifier.create(publisher.subscribe("C1", null, 1L))
+                .assertNext(event -> assertEquals(3, event.getSequence()))
+                .then(() -> publisher.accountChanged(AccountEventDTO.DELETED, account("B1", "C2")))
+                .then(() -> publisher.accountChanged(AccountEventDTO.DELETED, account("A1", "C1")))
+                .assertNext(event -> {
+                    assertEquals(5, event.getSequence());
+                    assertEquals(AccountEventDTO.DELETED, event.getType());
+                })
+                .thenCancel()
+                .verify();
+
+        // El evento 1 ya salió del búfer de 4 posiciones
+        publisher.balanceChanged(account("A1", "C1"), Money.of("1.00"));
+        StepVerifier.create(publisher.subscribe(null, null, 1L))
+                .assertNext(event -> assertEquals(AccountEventDTO.RESET, event.getType()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribe_disconnectsLaggingSubscriberWithoutBlockingPublisher() {
+        AccountEventPublisher publisher = publisher(64, 2);
+
+        StepVerifier.create(publisher.subscribe(null, "A1", null), 0)
+                .then(() -> {
+                    for (int i = 0; i < 5; i++) {
+                        publisher.balanceChanged(account("A1", "C1"), Money.of("1.00"));
+                    }
+                })
+                .thenRequest(10)
+                .expectNextCount(2)
+                .verifyComplete();
+
+        assertEquals(1.0, meterRegistry.get("accounts.events.dropped").counter().count());
+        assertEquals(1.0, meterRegistry.get("accounts.events.lagging.disconnected").counter().count());
+    }
+
+    private AccountEventPublisher publisher(int replaySize, int subscriberBuffer) {
+        return new AccountEventPublisher(meterRegistry, "service", replaySize, subscriberBuffer, "disconnect",
+                Duration.ofSeconds(15));
+    }
+
+    private static Account account(String id, String customerId) {
+        Account account = new Account();
+        account.setId(id);
+        account.setCustomerId(customerId);
+        account.setBalance(Money.of("100.00"));
+        return account;
+    }
+}
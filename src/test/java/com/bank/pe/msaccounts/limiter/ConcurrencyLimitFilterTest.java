@@ -0,0 +1,90 @@
+package com.bank.pe.msaccounts.limiter;
+
+import com.bank.pe.msaccounts.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConcurrencyLimitFilterTest {
+
+    @Test
+    void classify_separatesReadsWritesTransfersAndReports() {
+        assertEquals(ConcurrencyLimiter.RequestClass.READ, classify(MockServerHttpRequest.get("/api/v1/accounts/A1")));
+        assertEquals(ConcurrencyLimiter.RequestClass.TRANSFER, classify(MockServerHttpRequest.post("/api/v1/accounts/transfer")));
+        assertEquals(ConcurrencyLimiter.RequestClass.TRANSFER,
+                classify(MockServerHttpRequest.post("/api/v1/accounts/A1/transactions")));
+        assertEquals(ConcurrencyLimiter.RequestClass.TRANSFER,
+                classify(MockServerHttpRequest.post("/api/v1/accounts/transfer/bulk")));
+        assertEquals(ConcurrencyLimiter.RequestClass.REPORT, classify(MockServerHttpRequest.post("/api/v1/accounts/bulk")));
+        assertEquals(ConcurrencyLimiter.RequestClass.WRITE, classify(MockServerHttpRequest.post("/api/v1/accounts")));
+        assertEquals(ConcurrencyLimiter.RequestClass.REPORT,
+                classify(MockServerHttpRequest.get("/api/v1/accounts/report/commissions/totals")));
+        assertEquals(ConcurrencyLimiter.RequestClass.REPORT,
+                classify(MockServerHttpRequest.get("/api/v1/accounts/export")));
+        assertEquals(ConcurrencyLimiter.RequestClass.READ,
+                classify(MockServerHttpRequest.get("/api/v1/accounts").accept(MediaType.APPLICATION_NDJSON)));
+        assertNull(classify(MockServerHttpRequest.get("/api/v1/accounts/events")));
+        assertNull(classify(MockServerHttpRequest.get("/actuator/health")));
+    }
+
+    @Test
+    void filter_rejectsWith503AndRetryAfterOnceClassLimitIsReached() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setRead(new ConcurrencyLimitProperties.Limit(1, 1, 1, Duration.ofSeconds(1)));
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties, new SimpleMeterRegistry());
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, properties);
+
+        // La primera lectura queda en curso y ocupa el único permiso
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/accounts/A1")), exchange -> Mono.never())
+                .subscribe();
+        MockServerWebExchange rejected = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/accounts/A2"));
+        StepVerifier.create(filter.filter(rejected, exchange -> Mono.error(new IllegalStateException("no debería ejecutarse"))))
+                .verifyComplete();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        // Las escrituras tienen su propio límite
+        MockServerWebExchange write = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/accounts"));
+        StepVerifier.create(filter.filter(write, exchange -> Mono.empty())).verifyComplete();
+        assertNull(write.getResponse().getStatusCode());
+        assertEquals(1L, ((Map<?, ?>) limiter.snapshot().get("read")).get("rejected.limit"));
+    }
+
+    @Test
+    void limiter_backsOffOnSlowOrFailedResponsesAndReportsYieldToTransfers() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setTransfer(new ConcurrencyLimitProperties.Limit(4, 1, 10, Duration.ofMillis(-1), 0.5));
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+        // Umbral negativo: toda respuesta cuenta como lenta y el límite baja a la mitad por muestra
+        ConcurrencyLimiter.Permit first = limiter.tryAcquire(ConcurrencyLimiter.RequestClass.TRANSFER);
+        ConcurrencyLimiter.Permit second = limiter.tryAcquire(ConcurrencyLimiter.RequestClass.TRANSFER);
+        ConcurrencyLimiter.Permit third = limiter.tryAcquire(ConcurrencyLimiter.RequestClass.TRANSFER);
+        assertNotNull(third);
+        // Tres de cuatro transferencias en curso (75%): los reportes ceden
+        assertNull(limiter.tryAcquire(ConcurrencyLimiter.RequestClass.REPORT));
+
+        first.release(false);
+        second.release(false);
+        third.release(false);
+        assertEquals(1, ((Map<?, ?>) limiter.snapshot().get("transfer")).get("limit"));
+        assertNotNull(limiter.tryAcquire(ConcurrencyLimiter.RequestClass.REPORT));
+    }
+
+    private static ConcurrencyLimiter.RequestClass classify(MockServerHttpRequest.BaseBuilder<?> request) {
+        return ConcurrencyLimiter.classify(request.build());
+    }
+}
@@ -0,0 +1,133 @@
+package com.bank.pe.msaccounts.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.FilterReply;
+import com.mongodb.MongoSocketReadTimeoutException;
+import com.mongodb.ServerAddress;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoggingPipelineTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    void repeatedExceptionFilter_suppressesRepetitionsPerLoggerAndRootCause() {
+        RepeatedExceptionFilter filter = new RepeatedExceptionFilter();
+        filter.setAllowedRepetitions(2);
+        filter.setWindowMillis(60_000);
+        filter.start();
+        Logger mongo = context.getLogger("org.mongodb.driver.cluster");
+        Logger service = context.getLogger("com.bank.pe.msaccounts.service");
+        Exception timeout = new MongoSocketReadTimeoutException("Timeout while receiving message",
+                new ServerAddress(), new SocketTimeoutException("Read timed out"));
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, mongo, Level.INFO, "Exception in monitor thread", null, timeout));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, mongo, Level.INFO, "Exception in monitor thread", null, timeout));
+        assertEquals(FilterReply.DENY, filter.decide(null, mongo, Level.INFO, "Exception in monitor thread", null, timeout));
+        // Excepción como último argumento del mensaje parametrizado
+        assertEquals(FilterReply.DENY, filter.decide(null, mongo, Level.WARN, "Falló {}", new Object[]{"x", timeout}, null));
+        // Los ERROR nunca se suprimen: algunos se usan para conciliar
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, mongo, Level.ERROR, "No se pudo revertir", null, timeout));
+        // Otro logger u otra causa raíz tienen su propia ventana; sin excepción no se filtra
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, service, Level.WARN, "Falló", null, timeout));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, mongo, Level.INFO, "Falló", null, new IOException("io")));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, mongo, Level.INFO, "Sin error", null, null));
+        assertEquals(2, filter.getSuppressedCount());
+    }
+
+    @Test
+    void meteredAsyncAppender_dropsLowSeverityFirstAndNeverBlocksWhenFull() throws InterruptedException {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AppenderBase<ILoggingEvent> slow = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                received.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        slow.setContext(context);
+        slow.start();
+        MeteredAsyncAppender async = new MeteredAsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(4);
+        async.setDiscardingThreshold(3);
+        async.setNeverBlock(true);
+        async.addAppender(slow);
+        async.start();
+        Logger logger = context.getLogger("test");
+
+        // El primer evento ocupa al worker; la cola queda con 4 lugares libres
+        async.doAppend(event(logger, Level.INFO));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        async.doAppend(event(logger, Level.INFO));
+        async.doAppend(event(logger, Level.INFO));
+        // Con menos de 3 lugares libres se descartan los INFO pero no los ERROR
+        async.doAppend(event(logger, Level.INFO));
+        async.doAppend(event(logger, Level.ERROR));
+        async.doAppend(event(logger, Level.ERROR));
+        // Cola llena: se descarta sin bloquear
+        async.doAppend(event(logger, Level.ERROR));
+
+        assertEquals(1, async.getDiscardedCount());
+        assertEquals(1, async.getOverflowedCount());
+        release.countDown();
+        async.stop();
+    }
+
+    @Test
+    void accessLogFilter_logsServerErrorsButSamplesClientErrors() {
+        Logger access = (Logger) LoggerFactory.getLogger("com.bank.pe.msaccounts.access");
+        ListAppender<ILoggingEvent> captured = new ListAppender<>();
+        captured.start();
+        access.addAppender(captured);
+        AccessLogFilter filter = new AccessLogFilter(0.0, Duration.ofMinutes(1));
+        try {
+            // Un 404 llega al filtro como error, no como respuesta: no debe registrarse como 500
+            StepVerifier.create(filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/accounts/NO")),
+                            exchange -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Cuenta bancaria no encontrada"))))
+                    .expectError(ResponseStatusException.class)
+                    .verify();
+            assertEquals(0, captured.list.size());
+
+            StepVerifier.create(filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/accounts/A1")),
+                            exchange -> Mono.error(new IllegalStateException("Mongo no disponible"))))
+                    .expectError(IllegalStateException.class)
+                    .verify();
+            assertEquals(1, captured.list.size());
+            assertTrue(captured.list.get(0).getFormattedMessage().contains("status=500"));
+        } finally {
+            access.detachAppender(captured);
+        }
+    }
+
+    private static LoggingEvent event(Logger logger, Level level) {
+        return new LoggingEvent(Logger.class.getName(), logger, level, "mensaje", null, null);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.pe.msaccounts.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class TimedServiceProxyTest {
+
+    interface SampleService {
+        Mono<String> find(String id);
+
+        Flux<Integer> list();
+    }
+
+    static class SampleServiceImpl implements SampleService {
+        @Override
+        public Mono<String> find(String id) {
+            return "missing".equals(id)
+                    ? Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "No existe"))
+                    : Mono.just(id);
+        }
+
+        @Override
+        public Flux<Integer> list() {
+            return Flux.just(1, 2, 3);
+        }
+    }
+
+    @Test
+    void recordsOutcomeAndStatusWithoutArguments() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SampleService service = TimedServiceProxy.wrap(SampleService.class, new SampleServiceImpl(), registry, "test.service");
+
+        StepVerifier.create(service.find("acc-1")).expectNext("acc-1").verifyComplete();
+        StepVerifier.create(service.find("missing")).expectError(ResponseStatusException.class).verify();
+        StepVerifier.create(service.list()).expectNextCount(3).verifyComplete();
+
+        Timer ok = registry.find("test.service").tags("method", "find", "outcome", "success", "status", "none").timer();
+        Timer notFound = registry.find("test.service").tags("method", "find", "outcome", "error", "status", "404").timer();
+        assertNotNull(ok);
+        assertNotNull(notFound);
+        assertEquals(1, ok.count());
+        assertEquals(1, notFound.count());
+        assertEquals(1, registry.find("test.service").tags("method", "list", "outcome", "success").timer().count());
+        // Ningún valor de argumento termina como etiqueta
+        assertEquals(3, registry.find("test.service").timers().size());
+    }
+}
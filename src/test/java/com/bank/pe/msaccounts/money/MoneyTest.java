@@ -0,0 +1,61 @@
+package com.bank.pe.msaccounts.money;
+
+import com.bank.pe.msaccounts.dto.CreditDTO;
+import com.bank.pe.msaccounts.dto.TransferRequestDTO;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void arithmeticIsExact() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.of("0.10"));
+        }
+
+        assertEquals(Money.of("1.00"), total);
+        assertEquals(100, total.getMinorUnits());
+        assertEquals(Money.of("33.33"), Money.of("100.00").divide(3));
+    }
+
+    @Test
+    void jsonKeepsNumericFormat() throws Exception {
+        TransferRequestDTO transfer = objectMapper.readValue(
+                "{\"reference\":\"1\",\"fromAccountId\":\"A\",\"toAccountId\":\"B\",\"amount\":150.1}",
+                TransferRequestDTO.class);
+
+        assertEquals(15010, transfer.getAmount().getMinorUnits());
+        assertEquals("{\"reference\":\"1\",\"fromAccountId\":\"A\",\"toAccountId\":\"B\",\"amount\":150.10}",
+                objectMapper.writeValueAsString(transfer));
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue(
+                "{\"amount\":1.005}", TransferRequestDTO.class));
+    }
+
+    @Test
+    void downstreamAmountsAreRoundedToTheCent() throws Exception {
+        CreditDTO credit = objectMapper.readValue(
+                "{\"id\":\"CR1\",\"amount\":1234.5600000001,\"creditLimit\":\"500.005\",\"currentDebt\":10.015}",
+                CreditDTO.class);
+
+        assertEquals(Money.of("1234.56"), credit.getAmount());
+        assertEquals(Money.of("500.00"), credit.getCreditLimit());
+        assertEquals(Money.of("10.02"), credit.getCurrentDebt());
+    }
+
+    @Test
+    void storedValuesAreRoundedToTheCent() {
+        assertEquals(Money.of("0.30"), Money.fromStored(0.1 + 0.2));
+        assertEquals(Money.of("12.50"), Money.fromStored(new Decimal128(new BigDecimal("12.500000000000"))));
+        assertEquals(new Decimal128(new BigDecimal("12.50")), Money.of("12.5").toDecimal128());
+    }
+}
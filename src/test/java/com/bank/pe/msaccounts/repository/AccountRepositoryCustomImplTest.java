@@ -0,0 +1,129 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.money.Money;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountRepositoryCustomImplTest {
+
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final AccountRepositoryCustomImpl repository = new AccountRepositoryCustomImpl(mongo.template());
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void updateTerms_updatesAccountsCreatedBeforeVersioning() {
+        // Documento anterior a @Version: sin campo version
+        insertRaw(new Document("_id", "A1")
+                .append("type", "AHORRO")
+                .append("customerId", "C1")
+                .append("balance", Money.of("100.00").toDecimal128()));
+
+        Account terms = new Account();
+        terms.setHasMaintenanceFee(true);
+        terms.setCommissionFee(Money.of("2.50"));
+        terms.setFreeTransactions(3);
+        terms.setAuthorizedSigners(List.of("S1"));
+
+        StepVerifier.create(repository.updateTerms("A1", terms))
+                .assertNext(updated -> {
+                    assertEquals(1L, updated.getVersion());
+                    assertTrue(updated.isHasMaintenanceFee());
+                    assertEquals(Money.of("2.50"), updated.getCommissionFee());
+                    assertEquals(3, updated.getFreeTransactions());
+                    assertEquals(List.of("S1"), updated.getAuthorizedSigners());
+                    // El saldo y el resto del documento no se reescriben
+                    assertEquals(Money.of("100.00"), updated.getBalance());
+                    assertEquals("C1", updated.getCustomerId());
+                })
+                .verifyComplete();
+        StepVerifier.create(mongo.template().count(new Query(), Account.class))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void revertBalanceDeltas_onlyRevertsOwnBatchWhenAnotherBatchTouchedTheAccount() {
+        String a = new ObjectId().toHexString();
+        String b = new ObjectId().toHexString();
+        String c = new ObjectId().toHexString();
+        insert(a, "100.00");
+        insert(b, "0.00");
+        insert(c, "0.00");
+
+        // El lote 1 queda parcial: C no alcanza el saldo requerido
+        List<BalanceDelta> first = List.of(new BalanceDelta(a, -5000, 5000), new BalanceDelta(b, 5000, 0),
+                new BalanceDelta(c, -50000, 50000));
+        StepVerifier.create(repository.applyBalanceDeltas("lote-1", first)).expectNext(2).verifyComplete();
+        // Otro lote toca A antes de que el primero se revierta
+        List<BalanceDelta> second = List.of(new BalanceDelta(a, 1000, 0));
+        StepVerifier.create(repository.applyBalanceDeltas("lote-2", second)).expectNext(1).verifyComplete();
+
+        StepVerifier.create(repository.revertBalanceDeltas("lote-1", first)).verifyComplete();
+        StepVerifier.create(repository.commitBalanceDeltas("lote-2", second)).verifyComplete();
+
+        assertEquals(Money.of("110.00"), find(a).getBalance());
+        assertEquals(Money.of("0.00"), find(b).getBalance());
+        assertEquals(Money.of("0.00"), find(c).getBalance());
+        assertEquals(List.of(), rawDocument(a).getList("pendingTransferBatches", String.class));
+        assertEquals(List.of(), rawDocument(b).getList("pendingTransferBatches", String.class));
+    }
+
+    @Test
+    void insertUnordered_reportsRejectedPositionsAndInsertsTheRest() {
+        String existing = new ObjectId().toHexString();
+        insert(existing, "0.00");
+        Account duplicated = new Account();
+        duplicated.setId(existing);
+        Account fresh = new Account();
+        fresh.setBalance(Money.of("10.00"));
+
+        StepVerifier.create(repository.insertUnordered(List.of(duplicated, fresh)))
+                .assertNext(result -> {
+                    assertEquals(Set.of(0), result.getDuplicated());
+                    assertTrue(result.isInserted(1));
+                })
+                .verifyComplete();
+        assertEquals(Money.of("10.00"), find(fresh.getId()).getBalance());
+    }
+
+    @Test
+    void updateTerms_returnsEmptyForMissingAccount() {
+        StepVerifier.create(repository.updateTerms("NO", new Account())).verifyComplete();
+    }
+
+    private void insert(String id, String balance) {
+        insertRaw(new Document("_id", new ObjectId(id)).append("balance", Money.of(balance).toDecimal128()).append("version", 0L));
+    }
+
+    private void insertRaw(Document document) {
+        mongo.template().getCollection("accounts")
+                .flatMap(collection -> Mono.from(collection.insertOne(document)))
+                .block();
+    }
+
+    private Account find(String id) {
+        return mongo.template().findById(id, Account.class).block();
+    }
+
+    private Document rawDocument(String id) {
+        return mongo.template().getCollection("accounts")
+                .flatMap(collection -> Mono.from(collection.find(new Document("_id", new ObjectId(id))).first()))
+                .block();
+    }
+}
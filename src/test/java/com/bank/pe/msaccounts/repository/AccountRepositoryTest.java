@@ -0,0 +1,98 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccountRepositoryTest {
+
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final AccountRepository repository = new ReactiveMongoRepositoryFactory(mongo.template())
+            .getRepository(AccountRepository.class, RepositoryFragments.just(new AccountRepositoryCustomImpl(mongo.template())));
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void findCommissionCandidates_pagesByDateAndIdWithoutGapsOrRepeats() {
+        LocalDateTime from = LocalDateTime.of(2025, 3, 10, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Tres cuentas comparten la misma fecha: el _id desempata
+            accounts.add(candidate(from.plusHours(i < 3 ? 9 : 9 + i)));
+        }
+        accounts.add(candidate(to)); // Fuera del rango [from, to)
+        List<String> expected = repository.saveAll(accounts).collectList().block().stream()
+                .filter(account -> account.getLastTransactionDate().isBefore(to))
+                .sorted((a, b) -> a.getLastTransactionDate().equals(b.getLastTransactionDate())
+                        ? a.getId().compareTo(b.getId())
+                        : a.getLastTransactionDate().compareTo(b.getLastTransactionDate()))
+                .map(Account::getId)
+                .collect(Collectors.toList());
+
+        // Igual que el servicio: la clave del último elemento acota la página y es el cursor de la siguiente
+        List<String> paged = new ArrayList<>();
+        LocalDateTime afterDate = null;
+        String afterId = null;
+        while (true) {
+            List<Account> keys = repository.findCommissionKeys(from, to, afterDate, afterId, 1, 2).collectList().block();
+            if (keys.size() < 2) {
+                repository.findCommissionCandidates(from, to, afterDate, afterId, null, null, 2)
+                        .map(Account::getId)
+                        .toStream()
+                        .forEach(paged::add);
+                break;
+            }
+            Account last = keys.get(0);
+            repository.findCommissionCandidates(from, to, afterDate, afterId, last.getLastTransactionDate(), last.getId(), 0)
+                    .map(Account::getId)
+                    .toStream()
+                    .forEach(paged::add);
+            afterDate = last.getLastTransactionDate();
+            afterId = last.getId();
+        }
+
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void keysetPagesOverGeneratedIds() {
+        List<String> ids = repository.saveAll(List.of(new Account(), new Account(), new Account()))
+                .map(Account::getId)
+                .sort()
+                .collectList()
+                .block();
+
+        List<String> full = repository.findPage(ids.get(0), 10)
+                .map(Account::getId)
+                .collectList()
+                .block();
+        List<String> projected = repository.findPageFields(ids.get(0), 10, Set.of("number"))
+                .map(Account::getId)
+                .collectList()
+                .block();
+
+        assertEquals(ids.subList(1, 3), full);
+        assertEquals(ids.subList(1, 3), projected);
+    }
+
+    private static Account candidate(LocalDateTime lastTransactionDate) {
+        Account account = new Account();
+        account.setHasMaintenanceFee(true);
+        account.setLastTransactionDate(lastTransactionDate);
+        return account;
+    }
+}
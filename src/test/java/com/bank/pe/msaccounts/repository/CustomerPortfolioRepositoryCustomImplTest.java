@@ -0,0 +1,85 @@
+package com.bank.pe.msaccounts.repository;
+
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import com.bank.pe.msaccounts.money.Money;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CustomerPortfolioRepositoryCustomImplTest {
+
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final CustomerPortfolioRepositoryCustomImpl repository = new CustomerPortfolioRepositoryCustomImpl(mongo.template());
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void rebuild_aggregatesAccountsAndClearsTheRebuildToken() {
+        insertAccount("C1", "Ahorro", "100.00");
+        insertAccount("C1", "CORRIENTE", "50.00");
+        insertAccount("C2", "AHORRO", "10.00");
+
+        StepVerifier.create(repository.rebuild("C1"))
+                .assertNext(portfolio -> {
+                    assertEquals(Map.of("AHORRO", 1, "CORRIENTE", 1), portfolio.getAccountsByType());
+                    assertEquals(Money.of("150.00"), portfolio.getTotalBalance());
+                    assertFalse(portfolio.isRebuilding());
+                })
+                .verifyComplete();
+        assertNull(rawPortfolio("C1").get("rebuildToken"));
+    }
+
+    @Test
+    void applyDelta_invalidatesARebuildInProgress() {
+        // Resumen provisional de una reconstrucción que ya agregó las cuentas, antes de guardar
+        mongo.template().getCollection("customer_portfolios")
+                .flatMap(collection -> Mono.from(collection.insertOne(new Document("_id", "C1").append("rebuildToken", "T1"))))
+                .block();
+
+        StepVerifier.create(repository.applyDelta("C1", "AHORRO", 1, Money.of("100.00"))).verifyComplete();
+
+        // La escritura final de esa reconstrucción ya no coincide con su token
+        assertNotEquals("T1", rawPortfolio("C1").getString("rebuildToken"));
+    }
+
+    @Test
+    void rebuild_keepsASummaryCompletedConcurrently() {
+        mongo.template().insert(new CustomerPortfolio("C1", Map.of("AHORRO", 1), Money.of("100.00"), LocalDateTime.now()))
+                .block();
+
+        StepVerifier.create(repository.rebuild("C1"))
+                .assertNext(portfolio -> assertEquals(Map.of("AHORRO", 1), portfolio.getAccountsByType()))
+                .verifyComplete();
+        StepVerifier.create(repository.applyDelta("C1", "CORRIENTE", 1, Money.of("5.00")))
+                .assertNext(portfolio -> assertEquals(Map.of("AHORRO", 1, "CORRIENTE", 1), portfolio.getAccountsByType()))
+                .verifyComplete();
+    }
+
+    private void insertAccount(String customerId, String type, String balance) {
+        Account account = new Account();
+        account.setCustomerId(customerId);
+        account.setType(type);
+        account.setBalance(Money.of(balance));
+        mongo.template().insert(account).block();
+    }
+
+    private Document rawPortfolio(String customerId) {
+        return mongo.template().getCollection("customer_portfolios")
+                .flatMap(collection -> Mono.from(collection.find(new Document("_id", customerId)).first()))
+                .block();
+    }
+}
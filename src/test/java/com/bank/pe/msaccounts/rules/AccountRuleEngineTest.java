@@ -0,0 +1,88 @@
+package com.bank.pe.msaccounts.rules;
+
+import com.bank.pe.msaccounts.dto.CreditEligibilityDTO;
+import com.bank.pe.msaccounts.dto.CustomerDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccountRuleEngineTest {
+
+    private final AccountRuleEngine defaultEngine = new AccountRuleEngine(new AccountRuleProperties());
+
+    @Test
+    void evaluate_normalizesTypeAndRejectsSecondPersonalAccount() {
+        RuleViolation violation = defaultEngine.evaluate(account("ahorro"), customer("personal", null),
+                portfolio("AHORRO"), eligibility(null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, violation.getStatus());
+        assertEquals("El cliente ya tiene una cuenta de este tipo", violation.getMessage());
+    }
+
+    @Test
+    void evaluate_rejectsUnknownProductAndRequiresCreditCardForPyme() {
+        assertEquals("Tipo de cuenta no soportado", defaultEngine.evaluate(account("CRIPTO"),
+                customer("PERSONAL", null), portfolio(), eligibility(true)).getMessage());
+
+        assertEquals("Cliente PYME requiere tarjeta de crédito activa", defaultEngine.evaluate(account("CORRIENTE"),
+                customer("EMPRESARIAL", "PYME"), portfolio(), eligibility(false)).getMessage());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, defaultEngine.evaluate(account("CORRIENTE"),
+                customer("EMPRESARIAL", "PYME"), portfolio(), eligibility(null)).getStatus());
+        assertNull(defaultEngine.evaluate(account("CORRIENTE"),
+                customer("EMPRESARIAL", "PYME"), portfolio("CORRIENTE"), eligibility(true)));
+    }
+
+    @Test
+    void evaluate_appliesProductTypesAddedByConfiguration() {
+        AccountRuleProperties properties = new AccountRuleProperties();
+        properties.getProductTypes().add("CTS");
+        properties.getLimits().add(new AccountRuleProperties.Limit(CustomerType.PERSONAL, "CTS", 2, null));
+        AccountRuleEngine engine = new AccountRuleEngine(properties);
+
+        assertSame("CTS", engine.canonicalProductType("cts"));
+        assertNull(engine.evaluate(account("CTS"), customer("PERSONAL", null), portfolio("CTS"), eligibility(null)));
+        assertEquals("El cliente alcanzó el máximo de cuentas de este tipo", engine.evaluate(account("CTS"),
+                customer("PERSONAL", null), portfolio("CTS", "CTS"), eligibility(null)).getMessage());
+    }
+
+    @Test
+    void constructor_failsOnLimitForUndeclaredProduct() {
+        AccountRuleProperties properties = new AccountRuleProperties();
+        properties.setLimits(List.of(new AccountRuleProperties.Limit(CustomerType.PERSONAL, "CTS", 1, null)));
+
+        assertThrows(IllegalStateException.class, () -> new AccountRuleEngine(properties));
+    }
+
+    private static Account account(String type) {
+        Account account = new Account();
+        account.setType(type);
+        return account;
+    }
+
+    private static CustomerDTO customer(String type, String profile) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setType(type);
+        customer.setProfile(profile);
+        return customer;
+    }
+
+    private static CustomerPortfolio portfolio(String... accountTypes) {
+        CustomerPortfolio portfolio = new CustomerPortfolio();
+        for (String type : accountTypes) {
+            portfolio.getAccountsByType().merge(type, 1, Integer::sum);
+        }
+        return portfolio;
+    }
+
+    private static CreditEligibilityDTO eligibility(Boolean hasCreditCard) {
+        return new CreditEligibilityDTO("C1", false, hasCreditCard);
+    }
+}
@@ -1,16 +1,135 @@
 package com.bank.pe.msaccounts.service.impl;
 
+import com.bank.pe.msaccounts.cache.AccountCache;
+import com.bank.pe.msaccounts.client.CreditEligibilityClient;
+import com.bank.pe.msaccounts.client.CustomerClient;
+import com.bank.pe.msaccounts.dto.AccountCreationResultDTO;
+import com.bank.pe.msaccounts.dto.AccountEventDTO;
+import com.bank.pe.msaccounts.dto.AccountFields;
+import com.bank.pe.msaccounts.dto.AccountStreamPageDTO;
+import com.bank.pe.msaccounts.dto.CreditEligibilityDTO;
+import com.bank.pe.msaccounts.dto.CustomerDTO;
+import com.bank.pe.msaccounts.dto.TransactionRequestDTO;
+import com.bank.pe.msaccounts.dto.TransferRequestDTO;
+import com.bank.pe.msaccounts.dto.TransferResultDTO;
+import com.bank.pe.msaccounts.entity.Account;
+import com.bank.pe.msaccounts.entity.BalanceSnapshot;
+import com.bank.pe.msaccounts.entity.CommissionEntry;
+import com.bank.pe.msaccounts.entity.CommissionRollup;
+import com.bank.pe.msaccounts.entity.CustomerPortfolio;
+import com.bank.pe.msaccounts.events.AccountEventPublisher;
+import com.bank.pe.msaccounts.money.Money;
+import com.bank.pe.msaccounts.repository.AccountRepository;
+import com.bank.pe.msaccounts.repository.BulkInsertResult;
+import com.bank.pe.msaccounts.repository.BalanceSnapshotRepository;
+import com.bank.pe.msaccounts.repository.CommissionLedgerRepository;
+import com.bank.pe.msaccounts.repository.CommissionRollupRepository;
+import com.bank.pe.msaccounts.repository.CustomerPortfolioRepository;
+import com.bank.pe.msaccounts.rules.AccountRuleEngine;
+import com.bank.pe.msaccounts.rules.AccountRuleProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
 class AccountServiceImplTest {
 
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private CustomerPortfolioRepository portfolioRepository;
+    @Mock
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Mock
+    private CommissionLedgerRepository commissionLedgerRepository;
+    @Mock
+    private CommissionRollupRepository commissionRollupRepository;
+    @Mock
+    private CustomerClient customerClient;
+    @Mock
+    private CreditEligibilityClient creditEligibilityClient;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private BalanceWriteCombiner balanceWriteCombiner =
+            new BalanceWriteCombiner(new SimpleMeterRegistry(), 1, Duration.ofMillis(20), 256, 100);
+    @Spy
+    private AccountCache accountCache = new AccountCache(new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+    @Spy
+    private AccountRuleEngine accountRuleEngine = new AccountRuleEngine(new AccountRuleProperties());
+    @Spy
+    private AccountEventPublisher accountEventPublisher =
+            new AccountEventPublisher(new SimpleMeterRegistry(), "service", 16, 16, "disconnect", Duration.ofSeconds(15));
+    @InjectMocks
+    private AccountServiceImpl accountService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(balanceSnapshotRepository.recordMovements(any(LocalDate.class), anyMap())).thenReturn(Mono.empty());
+    }
+
     @Test
     void listAccounts() {
+        when(accountRepository.findPage(null, 3))
+                .thenReturn(Flux.just(accountWithId("1"), accountWithId("2"), accountWithId("3")));
+
+        StepVerifier.create(accountService.listAccounts(null, 2, null))
+                .assertNext(page -> {
+                    assertEquals(2, page.getContent().size());
+                    assertNotNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void listAccountsRejectsInvalidCursor() {
+        StepVerifier.create(accountService.listAccounts("%%%", 2, null))
+                .expectError(ResponseStatusException.class)
+                .verify();
     }
 
     @Test
     void getAccount() {
+        when(accountRepository.findById("1")).thenReturn(Mono.just(accountWithId("1")));
+
+        StepVerifier.create(accountService.getAccount("1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(accountService.getAccount("1")).expectNextCount(1).verifyComplete();
+
+        verify(accountRepository, times(1)).findById("1");
     }
 
     @Test
@@ -19,29 +138,512 @@ class AccountServiceImplTest {
 
     @Test
     void createAccount() {
+        Account account = new Account();
+        account.setCustomerId("C1");
+        account.setType("CORRIENTE");
+        account.setBalance(Money.of("100.00"));
+        when(customerClient.getCustomerById("C1")).thenReturn(Mono.just(customer("C1", "PERSONAL", null)));
+        when(creditEligibilityClient.getEligibility("C1")).thenReturn(Mono.just(eligibility("C1", false, false)));
+        when(portfolioRepository.findById("C1")).thenReturn(Mono.just(portfolio("C1", "AHORRO")));
+        when(accountRepository.save(account)).thenReturn(Mono.just(account));
+        when(portfolioRepository.applyDelta("C1", "CORRIENTE", 1, Money.of("100.00"))).thenReturn(Mono.just(new CustomerPortfolio()));
+
+        StepVerifier.create(accountService.createAccount(account))
+                .expectNext(account)
+                .verifyComplete();
+    }
+
+    @Test
+    void createAccountRejectsDuplicatedPersonalType() {
+        Account account = new Account();
+        account.setCustomerId("C1");
+        account.setType("ahorro");
+        when(customerClient.getCustomerById("C1")).thenReturn(Mono.just(customer("C1", "PERSONAL", null)));
+        when(creditEligibilityClient.getEligibility("C1")).thenReturn(Mono.just(eligibility("C1", false, false)));
+        when(portfolioRepository.findById("C1")).thenReturn(Mono.just(portfolio("C1", "AHORRO")));
+
+        StepVerifier.create(accountService.createAccount(account))
+                .expectErrorMatches(ex -> ex instanceof ResponseStatusException
+                        && ((ResponseStatusException) ex).getStatus() == HttpStatus.BAD_REQUEST)
+                .verify();
+
+        verify(accountRepository, never()).save(account);
+    }
+
+    @Test
+    void createAccountRequiresCreditCardForVip() {
+        Account account = new Account();
+        account.setCustomerId("C1");
+        account.setType("CORRIENTE");
+        when(customerClient.getCustomerById("C1")).thenReturn(Mono.just(customer("C1", "PERSONAL", "VIP")));
+        when(creditEligibilityClient.getEligibility("C1")).thenReturn(Mono.just(eligibility("C1", false, false)));
+        when(portfolioRepository.findById("C1")).thenReturn(Mono.just(portfolio("C1")));
+
+        StepVerifier.create(accountService.createAccount(account))
+                .expectErrorMatches(ex -> ex instanceof ResponseStatusException
+                        && ((ResponseStatusException) ex).getStatus() == HttpStatus.BAD_REQUEST)
+                .verify();
+    }
+
+    @Test
+    void createAccountsRejectsDuplicatedTypeWithinBatch() {
+        Account first = new Account();
+        first.setCustomerId("C1");
+        first.setType("AHORRO");
+        Account second = new Account();
+        second.setCustomerId("C1");
+        second.setType("AHORRO");
+        when(customerClient.getCustomerById("C1")).thenReturn(Mono.just(customer("C1", "PERSONAL", null)));
+        when(creditEligibilityClient.getEligibility("C1")).thenReturn(Mono.just(eligibility("C1", false, false)));
+        when(portfolioRepository.findById("C1")).thenReturn(Mono.just(portfolio("C1")));
+        when(accountRepository.insertUnordered(List.of(first))).thenReturn(Mono.just(BulkInsertResult.ALL_INSERTED));
+        when(portfolioRepository.applyDelta("C1", "AHORRO", 1, Money.ZERO)).thenReturn(Mono.just(new CustomerPortfolio()));
+
+        StepVerifier.create(accountService.createAccounts(Flux.just(first, second)))
+                .assertNext(result -> assertEquals(AccountCreationResultDTO.CREATED, result.getStatus()))
+                .assertNext(result -> assertEquals(AccountCreationResultDTO.REJECTED, result.getStatus()))
+                .verifyComplete();
+
+        verify(customerClient, times(1)).getCustomerById("C1");
+    }
+
+    @Test
+    void createAccountsTracksPartiallyInsertedBatch() {
+        Account saving = new Account();
+        saving.setCustomerId("C1");
+        saving.setType("AHORRO");
+        saving.setNumber("N1");
+        Account current = new Account();
+        current.setCustomerId("C1");
+        current.setType("CORRIENTE");
+        // Fila del lote siguiente: solo es válida si el AHORRO fallido dejó de contar
+        Account retry = new Account();
+        retry.setCustomerId("C1");
+        retry.setType("AHORRO");
+        retry.setNumber("N2");
+        List<Account> rows = new ArrayList<>(List.of(saving, current));
+        while (rows.size() < 500) {
+            rows.add(new Account()); // Sin cliente: se rechaza antes de insertar
+        }
+        rows.add(retry);
+        when(customerClient.getCustomerById("C1")).thenReturn(Mono.just(customer("C1", "PERSONAL", null)));
+        when(creditEligibilityClient.getEligibility("C1")).thenReturn(Mono.just(eligibility("C1", false, false)));
+        when(portfolioRepository.findById("C1")).thenReturn(Mono.just(portfolio("C1")));
+        when(accountRepository.insertUnordered(List.of(saving, current)))
+                .thenReturn(Mono.just(new BulkInsertResult(Set.of(), Set.of(0))));
+        when(accountRepository.insertUnordered(List.of(retry))).thenReturn(Mono.just(BulkInsertResult.ALL_INSERTED));
+        when(portfolioRepository.applyDelta(eq("C1"), anyString(), eq(1), any(Money.class)))
+                .thenReturn(Mono.just(new CustomerPortfolio()));
+
+        StepVerifier.create(accountService.createAccounts(Flux.fromIterable(rows)).collectList())
+                .assertNext(results -> {
+                    assertEquals(500, results.get(0).getStatusCode());
+                    assertEquals(AccountCreationResultDTO.CREATED, results.get(1).getStatus());
+                    assertEquals(AccountCreationResultDTO.CREATED, results.get(500).getStatus());
+                })
+                .verifyComplete();
+
+        verify(portfolioRepository).applyDelta("C1", "CORRIENTE", 1, Money.ZERO);
+        verify(accountEventPublisher).accountChanged(AccountEventDTO.CREATED, current);
+        verify(accountEventPublisher, never()).accountChanged(AccountEventDTO.CREATED, saving);
+    }
+
+    @Test
+    void createAccountFailsFastOnOverdueDebt() {
+        Account account = new Account();
+        account.setCustomerId("C1");
+        account.setType("CORRIENTE");
+        when(customerClient.getCustomerById("C1")).thenReturn(Mono.never());
+        when(creditEligibilityClient.getEligibility("C1")).thenReturn(Mono.just(eligibility("C1", true, null)));
+        when(portfolioRepository.findById("C1")).thenReturn(Mono.never());
+
+        StepVerifier.create(accountService.createAccount(account))
+                .expectErrorMatches(ex -> ex instanceof ResponseStatusException
+                        && ((ResponseStatusException) ex).getStatus() == HttpStatus.FORBIDDEN)
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, meterRegistry.find("accounts.admission.stage")
+                .tags("stage", "customer", "outcome", "cancelled").timers().size());
     }
 
     @Test
     void updateBalanceAccount() {
+        Account previous = accountWithId("A");
+        previous.setBalance(Money.of("10.00"));
+        when(accountRepository.replaceBalance("A", Money.of("30.00"))).thenReturn(Mono.just(previous));
+
+        StepVerifier.create(Flux.merge(
+                        accountService.updateBalanceAccount("A", Money.of("30.00")),
+                        accountService.updateBalanceAccount("A", Money.of("30.00"))))
+                .assertNext(account -> assertEquals(Money.of("30.00"), account.getBalance()))
+                .assertNext(account -> assertEquals(Money.of("30.00"), account.getBalance()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(accountRepository, times(1)).replaceBalance("A", Money.of("30.00"));
+    }
+
+    @Test
+    void updateBalanceAccountRejectsTheOverwrittenBalanceInTheSameWindow() {
+        Account previous = accountWithId("A");
+        previous.setBalance(Money.of("10.00"));
+        when(accountRepository.replaceBalance("A", Money.of("30.00"))).thenReturn(Mono.just(previous));
+
+        StepVerifier.create(Mono.zip(
+                        accountService.updateBalanceAccount("A", Money.of("20.00")).materialize(),
+                        accountService.updateBalanceAccount("A", Money.of("30.00")).materialize()))
+                .assertNext(outcomes -> {
+                    // El 20.00 nunca se escribió: su llamador no puede recibir un éxito
+                    assertEquals(HttpStatus.CONFLICT, ((ResponseStatusException) outcomes.getT1().getThrowable()).getStatus());
+                    assertEquals(Money.of("30.00"), outcomes.getT2().get().getBalance());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(accountRepository, never()).replaceBalance("A", Money.of("20.00"));
+    }
+
+    @Test
+    void updateBalanceAccountFailsCallersWhenTheWriteThrows() {
+        when(accountRepository.replaceBalance("A", Money.of("20.00"))).thenThrow(new IllegalStateException("sin conexión"));
+
+        StepVerifier.create(accountService.updateBalanceAccount("A", Money.of("20.00")))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void postTransaction() {
+        Account posted = accountWithId("A");
+        posted.setBalance(Money.of("89.00"));
+        posted.setTransactionCount(3);
+        posted.setFreeTransactions(2);
+        posted.setCommissionFee(Money.of("1.00"));
+        when(accountRepository.post(eq("A"), eq(Money.of("-10.00")), any(LocalDateTime.class))).thenReturn(Mono.just(posted));
+        when(commissionLedgerRepository.insert(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+        when(commissionRollupRepository.increment(anyList())).thenReturn(Mono.empty());
+
+        StepVerifier.create(accountService.postTransaction("A", new TransactionRequestDTO("RETIRO", Money.of("10.00"))))
+                .assertNext(result -> {
+                    assertEquals(Money.of("1.00"), result.getCommission());
+                    assertEquals(Money.of("89.00"), result.getBalance());
+                    assertEquals(3, result.getTransactionCount());
+                })
+                .verifyComplete();
+
+        verify(commissionRollupRepository).increment(argThat(entries -> entries.size() == 1
+                && CommissionEntry.EXCESS_TRANSACTION.equals(entries.get(0).getKind())
+                && Money.of("1.00").equals(entries.get(0).getAmount())));
+    }
+
+    @Test
+    void getCommissionTotals() {
+        LocalDate start = LocalDate.of(2025, 1, 15);
+        LocalDate end = LocalDate.of(2025, 3, 31);
+        when(commissionRollupRepository.totals(start, end, CommissionRollup.BY_ACCOUNT_TYPE)).thenReturn(Flux.just(
+                new CommissionRollup(null, null, null, CommissionRollup.BY_ACCOUNT_TYPE, "AHORRO", Money.of("30.00"), 3, null),
+                new CommissionRollup(null, null, null, CommissionRollup.BY_ACCOUNT_TYPE, "CORRIENTE", Money.of("12.50"), 2, null)));
+
+        StepVerifier.create(accountService.getCommissionTotals(start, end, "tipo_cuenta"))
+                .assertNext(summary -> {
+                    assertEquals(Money.of("42.50"), summary.getTotal());
+                    assertEquals(5, summary.getCount());
+                    assertEquals(2, summary.getTotals().size());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void postTransactionRejectsWhenLimitReached() {
+        Account account = accountWithId("A");
+        account.setTransactionLimit(5);
+        account.setTransactionCount(5);
+        when(accountRepository.post(eq("A"), eq(Money.of("10.00")), any(LocalDateTime.class))).thenReturn(Mono.empty());
+        when(accountRepository.findById("A")).thenReturn(Mono.just(account));
+
+        StepVerifier.create(accountService.postTransaction("A", new TransactionRequestDTO("DEPOSITO", Money.of("10.00"))))
+                .expectErrorMatches(ex -> ex instanceof ResponseStatusException
+                        && ((ResponseStatusException) ex).getReason().contains("límite"))
+                .verify();
     }
 
     @Test
     void updateAccount() {
+        Account terms = new Account();
+        terms.setFreeTransactions(5);
+        Account updated = accountWithId("A");
+        updated.setFreeTransactions(5);
+        when(accountRepository.updateTerms("A", terms)).thenReturn(Mono.just(updated));
+
+        StepVerifier.create(accountService.updateAccount("A", terms))
+                .assertNext(account -> assertEquals(5, account.getFreeTransactions()))
+                .verifyComplete();
+
+        verify(accountRepository, never()).save(any(Account.class));
+        verify(accountEventPublisher).accountChanged(any(), eq(updated));
+    }
+
+    @Test
+    void updateAccountRejectsMissingAccount() {
+        when(accountRepository.updateTerms(eq("NO"), any(Account.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(accountService.updateAccount("NO", new Account()))
+                .expectErrorMatches(ex -> ex instanceof ResponseStatusException
+                        && ((ResponseStatusException) ex).getStatus() == HttpStatus.NOT_FOUND)
+                .verify();
     }
 
     @Test
     void transferBetweenAccounts() {
+        when(accountRepository.debit("A", Money.of("50.00"))).thenReturn(Mono.just(new Account()));
+        when(accountRepository.credit("B", Money.of("50.00"))).thenReturn(Mono.just(new Account()));
+
+        StepVerifier.create(accountService.transferBetweenAccounts("A", "B", Money.of("50.00")))
+                .verifyComplete();
+
+        verify(accountRepository, never()).credit("A", Money.of("50.00"));
+        verify(accountEventPublisher).balanceChanged(any(Account.class), eq(Money.of("-50.00")));
+        verify(accountEventPublisher).balanceChanged(any(Account.class), eq(Money.of("50.00")));
+    }
+
+    @Test
+    void transferBatch() {
+        Account a = accountWithId("A");
+        a.setBalance(Money.of("100.00"));
+        Account b = accountWithId("B");
+        b.setBalance(Money.ZERO);
+        when(accountRepository.findAllById(anyIterable())).thenReturn(Flux.just(a, b));
+        when(accountRepository.applyBalanceDeltas(anyString(), anyList())).thenReturn(Mono.just(2));
+        when(accountRepository.commitBalanceDeltas(anyString(), anyList())).thenReturn(Mono.empty());
+
+        Flux<TransferRequestDTO> transfers = Flux.just(
+                new TransferRequestDTO("1", "A", "B", Money.of("80.00")),
+                new TransferRequestDTO("2", "A", "B", Money.of("30.00")),
+                new TransferRequestDTO("3", "B", "A", Money.of("50.00")));
+
+        StepVerifier.create(accountService.transferBatch(transfers))
+                .assertNext(result -> assertEquals(TransferResultDTO.APPLIED, result.getStatus()))
+                .assertNext(result -> assertEquals(TransferResultDTO.REJECTED, result.getStatus()))
+                .assertNext(result -> assertEquals(TransferResultDTO.APPLIED, result.getStatus()))
+                .verifyComplete();
+
+        verify(accountRepository, never()).revertBalanceDeltas(anyString(), anyList());
+    }
+
+    @Test
+    void transferBatchRevertsAndRetriesIndividuallyWhenTheBulkWriteFails() {
+        Account a = accountWithId("A");
+        a.setBalance(Money.of("100.00"));
+        Account b = accountWithId("B");
+        b.setBalance(Money.ZERO);
+        when(accountRepository.findAllById(anyIterable())).thenReturn(Flux.just(a, b));
+        // El bulkWrite alcanzó a aplicar una cuenta antes de fallar
+        when(accountRepository.applyBalanceDeltas(anyString(), anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("bulkWrite interrumpido")));
+        when(accountRepository.revertBalanceDeltas(anyString(), anyList())).thenReturn(Mono.empty());
+        when(accountRepository.debit("A", Money.of("80.00"))).thenReturn(Mono.just(a));
+        when(accountRepository.credit("B", Money.of("80.00"))).thenReturn(Mono.just(b));
+        when(accountRepository.debit("B", Money.of("50.00"))).thenReturn(Mono.just(b));
+        when(accountRepository.credit("A", Money.of("50.00"))).thenReturn(Mono.just(a));
+
+        Flux<TransferRequestDTO> transfers = Flux.just(
+                new TransferRequestDTO("1", "A", "B", Money.of("80.00")),
+                new TransferRequestDTO("2", "A", "B", Money.of("30.00")),
+                new TransferRequestDTO("3", "B", "A", Money.of("50.00")));
+
+        StepVerifier.create(accountService.transferBatch(transfers))
+                .assertNext(result -> assertEquals(TransferResultDTO.APPLIED, result.getStatus()))
+                .assertNext(result -> assertEquals(TransferResultDTO.REJECTED, result.getStatus()))
+                .assertNext(result -> assertEquals(TransferResultDTO.APPLIED, result.getStatus()))
+                .verifyComplete();
+
+        verify(accountRepository).revertBalanceDeltas(anyString(), anyList());
+        verify(accountRepository, never()).commitBalanceDeltas(anyString(), anyList());
+        verify(accountRepository).debit("A", Money.of("80.00"));
+        verify(accountRepository).debit("B", Money.of("50.00"));
+    }
+
+    @Test
+    void transferBetweenAccountsRejectsInsufficientBalance() {
+        when(accountRepository.debit("A", Money.of("50.00"))).thenReturn(Mono.empty());
+        when(accountRepository.existsById("A")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(accountService.transferBetweenAccounts("A", "B", Money.of("50.00")))
+                .expectErrorMatches(ex -> ex instanceof ResponseStatusException
+                        && ((ResponseStatusException) ex).getStatus() == HttpStatus.BAD_REQUEST)
+                .verify();
+
+        verify(accountRepository, never()).credit("B", Money.of("50.00"));
+    }
+
+    @Test
+    void transferBetweenAccountsCompensatesWhenCreditFails() {
+        when(accountRepository.debit("A", Money.of("50.00"))).thenReturn(Mono.just(new Account()));
+        when(accountRepository.credit("B", Money.of("50.00"))).thenReturn(Mono.empty());
+        when(accountRepository.credit("A", Money.of("50.00"))).thenReturn(Mono.just(new Account()));
+
+        StepVerifier.create(accountService.transferBetweenAccounts("A", "B", Money.of("50.00")))
+                .expectErrorMatches(ex -> ex instanceof ResponseStatusException
+                        && ((ResponseStatusException) ex).getStatus() == HttpStatus.NOT_FOUND)
+                .verify();
+
+        verify(accountRepository, times(1)).credit("A", Money.of("50.00"));
+    }
+
+    @Test
+    void transferBetweenAccountsDoesNotCompensateWhenTheCreditOutcomeIsUnknown() {
+        when(accountRepository.debit("A", Money.of("50.00"))).thenReturn(Mono.just(new Account()));
+        // El abono pudo aplicarse antes del timeout: revertir el débito crearía dinero
+        when(accountRepository.credit("B", Money.of("50.00")))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("timeout")));
+
+        StepVerifier.create(accountService.transferBetweenAccounts("A", "B", Money.of("50.00")))
+                .expectErrorMatches(ex -> ex instanceof ResponseStatusException
+                        && ((ResponseStatusException) ex).getStatus() == HttpStatus.INTERNAL_SERVER_ERROR)
+                .verify();
+
+        verify(accountRepository, never()).credit("A", Money.of("50.00"));
+    }
+
+    @Test
+    void transferBetweenAccountsCompletesCreditWhenCallerCancels() {
+        Sinks.One<Account> credit = Sinks.one();
+        when(accountRepository.debit("A", Money.of("50.00"))).thenReturn(Mono.just(new Account()));
+        when(accountRepository.credit("B", Money.of("50.00"))).thenReturn(credit.asMono());
+
+        // El cliente se desconecta con el débito aplicado y el abono en curso
+        StepVerifier.create(accountService.transferBetweenAccounts("A", "B", Money.of("50.00")))
+                .thenCancel()
+                .verify();
+        credit.tryEmitValue(new Account());
+
+        verify(accountEventPublisher).balanceChanged(any(Account.class), eq(Money.of("50.00")));
+        verify(accountRepository, never()).credit("A", Money.of("50.00"));
     }
 
     @Test
     void getAccountsByCustomer() {
+        Set<String> fields = AccountFields.parse("number,balance");
+        when(accountRepository.findFieldsByCustomerId("C1", fields)).thenReturn(Flux.just(accountWithId("A")));
+
+        StepVerifier.create(accountService.getAccountsByCustomer("C1", fields)).expectNextCount(1).verifyComplete();
+
+        assertEquals(Set.of("id", "number", "balance"), fields);
+        verify(accountRepository, never()).findByCustomerId(anyString());
     }
 
     @Test
     void getDailyBalanceReport() {
+        LocalDate today = LocalDate.now();
+        Account moved = accountWithId("A");
+        moved.setNumber("001");
+        moved.setBalance(Money.of("150.00"));
+        Account idle = accountWithId("B");
+        idle.setNumber("002");
+        idle.setBalance(Money.of("80.00"));
+        // Depósito de 100.00 hoy sobre un saldo de 50.00 que venía de antes del mes
+        BalanceSnapshot snapshot = new BalanceSnapshot();
+        snapshot.setAccountId("A");
+        snapshot.setWeightedDelta(Money.ofMinor(10000L * (today.getDayOfMonth() - 1)));
+        when(accountRepository.findByCustomerId("C1")).thenReturn(Flux.just(moved, idle));
+        when(balanceSnapshotRepository.findAllById(anyIterable())).thenReturn(Flux.just(snapshot));
+
+        StepVerifier.create(accountService.getDailyBalanceReport("C1"))
+                .assertNext(report -> {
+                    assertEquals(Money.ofMinor(5000L * today.getDayOfMonth() + 10000).divide(today.getDayOfMonth()),
+                            report.get("001"));
+                    assertEquals(Money.of("80.00"), report.get("002"));
+                })
+                .verifyComplete();
     }
 
     @Test
     void getCommissionReport() {
+        LocalDate day = LocalDate.of(2025, 3, 10);
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        when(accountRepository.findCommissionKeys(from, to, null, null, 99, 2)).thenReturn(Flux.empty());
+        when(accountRepository.findCommissionCandidates(from, to, null, null, null, null, 100))
+                .thenReturn(Flux.just(new Account()));
+
+        StepVerifier.create(accountService.getCommissionReport(day, day, null, 100))
+                .assertNext(page -> {
+                    assertNull(page.getNextCursor());
+                    StepVerifier.create(page.getContent()).expectNextCount(1).verifyComplete();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getCommissionReportRejectsAnEmptyFirstPage() {
+        LocalDate day = LocalDate.of(2025, 3, 10);
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        when(accountRepository.findCommissionKeys(from, to, null, null, 99, 2)).thenReturn(Flux.empty());
+        when(accountRepository.findCommissionCandidates(from, to, null, null, null, null, 100)).thenReturn(Flux.empty());
+
+        StepVerifier.create(accountService.getCommissionReport(day, day, null, 100).flatMapMany(AccountStreamPageDTO::getContent))
+                .expectErrorSatisfies(ex -> assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) ex).getStatus()))
+                .verify();
+    }
+
+    @Test
+    void getCommissionReportContinuesFromTheKeysetCursor() {
+        LocalDate day = LocalDate.of(2025, 3, 10);
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        LocalDateTime at = day.atTime(9, 30, 15);
+        Account first = accountWithId("A1");
+        first.setLastTransactionDate(at);
+        Account second = accountWithId("A2");
+        second.setLastTransactionDate(at);
+        Account third = accountWithId("A3");
+        third.setLastTransactionDate(at.plusHours(1));
+        // La página se acota a la clave de su último elemento; el siguiente solo indica que hay más
+        when(accountRepository.findCommissionKeys(from, to, null, null, 1, 2)).thenReturn(Flux.just(second, third));
+        when(accountRepository.findCommissionCandidates(from, to, null, null, at, "A2", 0)).thenReturn(Flux.just(first, second));
+        when(accountRepository.findCommissionKeys(from, to, at, "A2", 1, 2)).thenReturn(Flux.empty());
+        when(accountRepository.findCommissionCandidates(from, to, at, "A2", null, null, 2)).thenReturn(Flux.just(third));
+
+        AccountStreamPageDTO<Account> firstPage = accountService.getCommissionReport(day, day, null, 2).block();
+
+        assertNotNull(firstPage.getNextCursor());
+        StepVerifier.create(firstPage.getContent()).expectNext(first, second).verifyComplete();
+        StepVerifier.create(accountService.getCommissionReport(day, day, firstPage.getNextCursor(), 2))
+                .assertNext(page -> {
+                    assertNull(page.getNextCursor());
+                    StepVerifier.create(page.getContent()).expectNext(third).verifyComplete();
+                })
+                .verifyComplete();
+        StepVerifier.create(accountService.getCommissionReport(day, day, "no-es-un-cursor", 2))
+                .expectErrorSatisfies(ex -> assertEquals(HttpStatus.BAD_REQUEST, ((ResponseStatusException) ex).getStatus()))
+                .verify();
+    }
+
+    private static Account accountWithId(String id) {
+        Account account = new Account();
+        account.setId(id);
+        return account;
+    }
+
+    private static CustomerDTO customer(String id, String type, String profile) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(id);
+        customer.setType(type);
+        customer.setProfile(profile);
+        return customer;
+    }
+
+    private static CreditEligibilityDTO eligibility(String customerId, boolean hasOverdueDebt, Boolean hasCreditCard) {
+        return new CreditEligibilityDTO(customerId, hasOverdueDebt, hasCreditCard);
+    }
+
+    private static CustomerPortfolio portfolio(String customerId, String... accountTypes) {
+        CustomerPortfolio portfolio = new CustomerPortfolio();
+        portfolio.setCustomerId(customerId);
+        for (String type : accountTypes) {
+            portfolio.getAccountsByType().merge(type, 1, Integer::sum);
+        }
+        return portfolio;
     }
-}
\ No newline at end of file
+}